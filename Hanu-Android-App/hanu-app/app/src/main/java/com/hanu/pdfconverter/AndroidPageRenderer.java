@@ -0,0 +1,133 @@
+package com.hanu.pdfconverter;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.pdf.PdfRenderer;
+import android.os.ParcelFileDescriptor;
+
+import org.apache.poi.sl.usermodel.PictureData;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * AndroidPageRenderer - PageRenderer over Android's PdfRenderer.
+ *
+ * Pages are drawn into bitmaps from a BitmapPool, so steady-state rendering
+ * allocates no new bitmaps; each bitmap goes back to the pool once its page is
+ * encoded. close() closes the renderer and its descriptor and empties the pool.
+ */
+class AndroidPageRenderer implements PageRenderer {
+
+    private final ParcelFileDescriptor pfd;
+    private final PdfRenderer renderer;
+    private final BitmapPool bitmapPool;
+
+    AndroidPageRenderer(ParcelFileDescriptor pfd, PdfRenderer renderer, BitmapPool bitmapPool) {
+        this.pfd = pfd;
+        this.renderer = renderer;
+        this.bitmapPool = bitmapPool;
+    }
+
+    @Override
+    public int getPageCount() {
+        return renderer.getPageCount();
+    }
+
+    @Override
+    public RenderedPage render(int pageIndex, SlideImageProfile profile) {
+        try (PdfRenderer.Page page = renderer.openPage(pageIndex)) {
+            float scale = profile.scaleFor(page.getWidth(), page.getHeight());
+            int width = Math.max(1, Math.round(page.getWidth() * scale));
+            int height = Math.max(1, Math.round(page.getHeight() * scale));
+            Bitmap bitmap = bitmapPool.acquire(width, height, Bitmap.Config.ARGB_8888);
+            Bitmap rendered;
+            try {
+                // Pooled bitmaps still hold the previous page
+                bitmap.eraseColor(android.graphics.Color.WHITE);
+                page.render(bitmap, null, null, PdfRenderer.Page.RENDER_MODE_FOR_DISPLAY);
+                rendered = toTargetConfig(bitmap, profile);
+            } catch (RuntimeException | Error e) {
+                // A page that fails to render hands its bitmap back instead of leaking it
+                bitmapPool.release(bitmap);
+                throw e;
+            }
+            return new BitmapPage(rendered);
+        }
+    }
+
+    @Override
+    public String stats() {
+        return bitmapPool.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            renderer.close();
+            pfd.close();
+        } finally {
+            // Don't hold idle page bitmaps once rendering is over
+            bitmapPool.clear();
+        }
+    }
+
+    /**
+     * PdfRenderer only draws into ARGB_8888, so an RGB_565 profile converts after rendering.
+     * If a converted bitmap is returned, the rendered one goes back to the pool; if
+     * this throws, the caller still owns the rendered one.
+     */
+    private Bitmap toTargetConfig(Bitmap rendered, SlideImageProfile profile) {
+        Bitmap.Config config = profile.getColorDepth() == SlideImageProfile.ColorDepth.RGB_565
+            ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+        if (config == rendered.getConfig()) return rendered;
+        Bitmap converted = bitmapPool.acquire(rendered.getWidth(), rendered.getHeight(), config);
+        try {
+            new Canvas(converted).drawBitmap(rendered, 0, 0, null);
+        } catch (RuntimeException | Error e) {
+            bitmapPool.release(converted);
+            throw e;
+        }
+        bitmapPool.release(rendered);
+        return converted;
+    }
+
+    final class BitmapPage implements RenderedPage {
+        private final Bitmap bitmap;
+
+        BitmapPage(Bitmap bitmap) {
+            this.bitmap = bitmap;
+        }
+
+        /** The rendered pixels, valid until release(); read by MlKitTextRecognizer. */
+        Bitmap getBitmap() {
+            return bitmap;
+        }
+
+        @Override
+        public int getWidth() {
+            return bitmap.getWidth();
+        }
+
+        @Override
+        public int getHeight() {
+            return bitmap.getHeight();
+        }
+
+        @Override
+        public SlideImageProfile.Encoded encode(SlideImageProfile profile) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            if (profile.prefersJpeg(bitmap.getWidth(), bitmap.getHeight(), bitmap::getPixel)) {
+                bitmap.compress(Bitmap.CompressFormat.JPEG, profile.getQuality(), bos);
+                return new SlideImageProfile.Encoded(bos.toByteArray(), PictureData.PictureType.JPEG);
+            }
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, bos);
+            return new SlideImageProfile.Encoded(bos.toByteArray(), PictureData.PictureType.PNG);
+        }
+
+        @Override
+        public void release() {
+            bitmapPool.release(bitmap);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.hanu.pdfconverter;
+
+import android.content.Context;
+import android.graphics.pdf.PdfRenderer;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+
+import com.tom_roush.pdfbox.android.PDFBoxResourceLoader;
+import com.tom_roush.pdfbox.io.MemoryUsageSetting;
+import com.tom_roush.pdfbox.pdmodel.PDDocument;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * AndroidPdfSource - PdfSource for a content or file Uri, backed by a real file.
+ *
+ * PDDocument.load(InputStream) buffers the whole PDF in the heap. Instead,
+ * content:// URIs are copied once to a temp file in the cache dir (hashing the
+ * bytes on the way for the ConversionCache), and every consumer reads that file:
+ *  - pdfbox-android loads it with random access and a MemoryUsageSetting that keeps
+ *    at most maxMainMemoryBytes of parser buffers in the heap, spilling the rest to
+ *    scratch files; text comes out through TableExtractor
+ *  - PdfRenderer gets a ParcelFileDescriptor on the same file (see AndroidPageRenderer)
+ * file:// URIs are used in place. The copy is made on first use, so it happens
+ * inside the conversion; close() deletes it.
+ */
+class AndroidPdfSource implements PdfSource {
+
+    private final Context context;
+    private final Uri pdfUri;
+    private final long maxMainMemoryBytes;
+    private final BitmapPool bitmapPool;
+
+    // Set on first use; guarded by this
+    private File file;
+    private boolean temporary;
+    private String sha256;
+
+    AndroidPdfSource(Context context, Uri pdfUri, long maxMainMemoryBytes, BitmapPool bitmapPool) {
+        this.context = context;
+        this.pdfUri = pdfUri;
+        this.maxMainMemoryBytes = maxMainMemoryBytes;
+        this.bitmapPool = bitmapPool;
+    }
+
+    /**
+     * SHA-256 of the PDF bytes, computed during the copy or on first use.
+     */
+    @Override
+    public synchronized String contentHash() throws IOException {
+        File local = localFile();
+        if (sha256 == null) {
+            MessageDigest digest = newDigest();
+            try (InputStream is = new FileInputStream(local)) {
+                byte[] buffer = new byte[64 * 1024];
+                int n;
+                while ((n = is.read(buffer)) != -1) {
+                    digest.update(buffer, 0, n);
+                }
+            }
+            sha256 = toHex(digest.digest());
+        }
+        return sha256;
+    }
+
+    /**
+     * Loads a new PDDocument over the file. Each caller gets its own instance.
+     */
+    @Override
+    public PageTextExtractor openTextExtractor() throws IOException {
+        File local = localFile();
+        PDFBoxResourceLoader.init(context);
+        MemoryUsageSetting memory = MemoryUsageSetting.setupMixed(maxMainMemoryBytes)
+            .setTempDir(context.getCacheDir());
+        return new TextExtractor(PDDocument.load(local, memory));
+    }
+
+    @Override
+    public PageRenderer openRenderer() throws IOException {
+        ParcelFileDescriptor pfd =
+            ParcelFileDescriptor.open(localFile(), ParcelFileDescriptor.MODE_READ_ONLY);
+        try {
+            return new AndroidPageRenderer(pfd, new PdfRenderer(pfd), bitmapPool);
+        } catch (IOException | RuntimeException e) {
+            pfd.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized long length() {
+        return file != null ? file.length() : -1;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (temporary && file != null) file.delete();
+        file = null;
+    }
+
+    private synchronized File localFile() throws IOException {
+        if (file != null) return file;
+
+        if ("file".equals(pdfUri.getScheme()) && pdfUri.getPath() != null) {
+            File direct = new File(pdfUri.getPath());
+            if (direct.canRead()) {
+                file = direct;
+                return file;
+            }
+        }
+
+        File copy = File.createTempFile("hanu-src-", ".pdf", context.getCacheDir());
+        MessageDigest digest = newDigest();
+        try (InputStream is = context.getContentResolver().openInputStream(pdfUri);
+             OutputStream os = new FileOutputStream(copy)) {
+            if (is == null) throw new IOException("Cannot open " + pdfUri);
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = is.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+                os.write(buffer, 0, n);
+            }
+        } catch (IOException e) {
+            copy.delete();
+            throw e;
+        }
+        file = copy;
+        temporary = true;
+        sha256 = toHex(digest.digest());
+        return file;
+    }
+
+    private static MessageDigest newDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * One parsed copy of the document with its own TableExtractor.
+     */
+    private static final class TextExtractor implements PageTextExtractor {
+        private final PDDocument document;
+        private final TableExtractor stripper;
+
+        TextExtractor(PDDocument document) throws IOException {
+            this.document = document;
+            try {
+                this.stripper = new TableExtractor();
+            } catch (IOException e) {
+                document.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public int getPageCount() {
+            return document.getNumberOfPages();
+        }
+
+        @Override
+        public TextPage extract(int pageNumber) throws IOException {
+            stripper.setStartPage(pageNumber);
+            stripper.setEndPage(pageNumber);
+            List<String> lines = Arrays.asList(stripper.getText(document).split("\n"));
+            return new TextPage(pageNumber, document.getNumberOfPages(), lines, stripper.rows());
+        }
+
+        @Override
+        public void close() throws IOException {
+            document.close();
+        }
+    }
+}
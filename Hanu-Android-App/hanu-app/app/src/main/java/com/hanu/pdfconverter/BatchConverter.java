@@ -0,0 +1,259 @@
+package com.hanu.pdfconverter;
+
+import android.content.Context;
+import android.net.Uri;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BatchConverter - Runs many PDF × format conversions on one bounded worker pool.
+ *
+ *  - All jobs for the same PDF run on one worker as a single PdfConverter.exportAll
+ *    call, so the document is parsed once and fanned out to every requested format
+ *  - Different PDFs run in parallel; the pool is sized to the cores and to how
+ *    many conversions fit in the heap at once, and the conversions split one
+ *    PdfConverter's idle-bitmap budget between them
+ *  - A format repeated for the same PDF runs once, and output files are made
+ *    unique across the batch (" (2)", " (3)"…) before anything is scheduled, so
+ *    parallel conversions never write or stage the same file
+ *  - Progress is reported for the batch as a whole, and a Summary with overall
+ *    throughput is delivered once every job has finished
+ *
+ * Listener callbacks arrive on worker threads. onBatchFinished always comes, even
+ * when a conversion dies with an Error or a listener callback throws.
+ */
+public class BatchConverter {
+
+    // Heap budget for one conversion running on the pool
+    private static final long HEAP_PER_WORKER = 96L * 1024 * 1024;
+
+    public static final class Job {
+        public final Uri pdfUri;
+        public final String format; // "excel", "word", "ppt"
+        public final File outputFile;
+        public final String label;
+
+        public Job(Uri pdfUri, String format, File outputFile, String label) {
+            this.pdfUri = pdfUri;
+            this.format = format;
+            this.outputFile = outputFile;
+            this.label = label;
+        }
+    }
+
+    public static final class Summary {
+        public final int jobs;
+        public final int succeeded;
+        public final long pages;
+        public final long outputBytes;
+        public final long elapsedMs;
+
+        Summary(int jobs, int succeeded, long pages, long outputBytes, long elapsedMs) {
+            this.jobs = jobs;
+            this.succeeded = succeeded;
+            this.pages = pages;
+            this.outputBytes = outputBytes;
+            this.elapsedMs = elapsedMs;
+        }
+
+        public double pagesPerSecond() {
+            return elapsedMs > 0 ? pages * 1000.0 / elapsedMs : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%d of %d files in %.1f s · %.1f pages/s",
+                succeeded, jobs, elapsedMs / 1000.0, pagesPerSecond());
+        }
+    }
+
+    public interface Listener {
+        void onProgress(int progress, String status);
+        void onJobFinished(Job job, Throwable error);
+        void onBatchFinished(Summary summary);
+    }
+
+    private final Context context;
+    private final int poolSize;
+    private final CancellationToken cancellation = new CancellationToken();
+    private PageSelection pageSelection = PageSelection.all();
+
+    public BatchConverter(Context context) {
+        this(context, defaultPoolSize());
+    }
+
+    public BatchConverter(Context context, int poolSize) {
+        this.context = context.getApplicationContext();
+        this.poolSize = Math.max(1, poolSize);
+    }
+
+    public static int defaultPoolSize() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int byMemory = (int) (Runtime.getRuntime().maxMemory() / HEAP_PER_WORKER);
+        return Math.max(1, Math.min(cores, byMemory));
+    }
+
+    /**
+     * Pages to convert in every PDF of the batch; PDFs too short for it fail. Set before start().
+     */
+    public void setPageSelection(PageSelection selection) {
+        this.pageSelection = selection != null ? selection : PageSelection.all();
+    }
+
+    /**
+     * Starts the batch and returns immediately. Listener calls carry the jobs as run,
+     * so a renamed output shows up in Job.outputFile.
+     */
+    public void start(List<Job> requested, Listener listener) {
+        List<Job> jobs = uniqueJobs(requested);
+        if (jobs.isEmpty()) {
+            listener.onBatchFinished(new Summary(0, 0, 0, 0, 0));
+            return;
+        }
+
+        // Group by input so each PDF is handled by one worker
+        Map<Uri, List<Job>> byInput = new LinkedHashMap<>();
+        for (Job job : jobs) {
+            List<Job> group = byInput.get(job.pdfUri);
+            if (group == null) {
+                group = new ArrayList<>();
+                byInput.put(job.pdfUri, group);
+            }
+            group.add(job);
+        }
+
+        int threads = Math.min(poolSize, Math.max(1, byInput.size()));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        PageSelection selection = pageSelection;
+        // Split the cores between parallel documents instead of oversubscribing them
+        int extractionWorkers = Math.max(1, Runtime.getRuntime().availableProcessors() / threads);
+        // Likewise the idle page bitmaps, so parallel PDFs stay within one conversion's cap
+        long bitmapPoolBytes = PdfConverter.defaultBitmapPoolBytes() / threads;
+
+        long startNanos = System.nanoTime();
+        int[] jobProgress = new int[jobs.size()];
+        AtomicInteger remaining = new AtomicInteger(byInput.size());
+        AtomicInteger succeeded = new AtomicInteger();
+        AtomicLong pages = new AtomicLong();
+        AtomicLong outputBytes = new AtomicLong();
+
+        for (List<Job> group : byInput.values()) {
+            pool.execute(() -> {
+                try {
+                    convertGroup(group, jobs, listener, jobProgress, extractionWorkers, bitmapPoolBytes,
+                        selection, succeeded, pages, outputBytes);
+                } finally {
+                    // Runs even if a conversion died with an Error or a listener threw
+                    if (remaining.decrementAndGet() == 0) {
+                        pool.shutdown();
+                        long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000L;
+                        listener.onBatchFinished(new Summary(jobs.size(), succeeded.get(),
+                            pages.get(), outputBytes.get(), elapsedMs));
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Converts every job of one PDF in a single exportAll call and reports each job.
+     */
+    private void convertGroup(List<Job> group, List<Job> jobs, Listener listener, int[] jobProgress,
+                              int extractionWorkers, long bitmapPoolBytes, PageSelection selection,
+                              AtomicInteger succeeded, AtomicLong pages, AtomicLong outputBytes) {
+        PdfConverter converter = new PdfConverter(context, bitmapPoolBytes);
+        converter.setCancellationToken(cancellation);
+        converter.setExtractionWorkers(extractionWorkers);
+        converter.setPageSelection(selection);
+
+        Map<String, File> targets = new LinkedHashMap<>();
+        int[] indexes = new int[group.size()];
+        for (int i = 0; i < group.size(); i++) {
+            Job job = group.get(i);
+            targets.put(job.format, job.outputFile);
+            indexes[i] = jobs.indexOf(job);
+        }
+        String label = group.get(0).label;
+        String position = "[" + (indexes[0] + 1) + "/" + jobs.size() + "] ";
+
+        converter.setProgressCallback((progress, status) -> {
+            int overall;
+            synchronized (jobProgress) {
+                for (int index : indexes) jobProgress[index] = progress;
+                int sum = 0;
+                for (int p : jobProgress) sum += p;
+                overall = sum / jobProgress.length;
+            }
+            listener.onProgress(overall, position + label + ": " + status);
+        });
+
+        Throwable error = null;
+        try {
+            cancellation.throwIfCancelled();
+            // All formats of this PDF come from one parse
+            converter.exportAll(group.get(0).pdfUri, targets);
+            succeeded.addAndGet(group.size());
+            // Each format is a conversion of its own; start() removed repeated ones
+            pages.addAndGet((long) converter.getLastPageCount() * targets.size());
+            for (File outputFile : targets.values()) {
+                outputBytes.addAndGet(outputFile.length());
+            }
+        } catch (Throwable e) {
+            // OutOfMemoryError included: fail this PDF and let the others finish
+            error = e;
+        }
+        synchronized (jobProgress) {
+            for (int index : indexes) jobProgress[index] = 100;
+        }
+        for (Job job : group) {
+            listener.onJobFinished(job, error);
+        }
+    }
+
+    /**
+     * Jobs in order without repeated PDF × format pairs, each with an output file no
+     * earlier job uses. Paths are compared ignoring case, as on shared storage.
+     */
+    private static List<Job> uniqueJobs(List<Job> jobs) {
+        List<Job> unique = new ArrayList<>(jobs.size());
+        Set<String> conversions = new HashSet<>();
+        Set<String> outputs = new HashSet<>();
+        for (Job job : jobs) {
+            if (!conversions.add(job.pdfUri + "\n" + job.format)) continue;
+            File outputFile = job.outputFile;
+            for (int n = 2; !outputs.add(outputFile.getPath().toLowerCase(Locale.ROOT)); n++) {
+                outputFile = numbered(job.outputFile, n);
+            }
+            unique.add(outputFile == job.outputFile ? job
+                : new Job(job.pdfUri, job.format, outputFile, job.label));
+        }
+        return unique;
+    }
+
+    /** "name.docx" as "name (n).docx". */
+    private static File numbered(File file, int n) {
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+        return new File(file.getParentFile(), base + " (" + n + ")" + extension);
+    }
+
+    /**
+     * Stops running conversions at their next page or row and skips the rest.
+     */
+    public void cancel() {
+        cancellation.cancel();
+    }
+}
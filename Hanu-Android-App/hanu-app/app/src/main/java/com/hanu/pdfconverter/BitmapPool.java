@@ -0,0 +1,110 @@
+package com.hanu.pdfconverter;
+
+import android.graphics.Bitmap;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * BitmapPool - Reuses page bitmaps instead of allocating a fresh one per page.
+ *
+ * Idle bitmaps are bucketed by allocation size. A request is served by any idle
+ * bitmap whose allocation is large enough (and not wastefully larger), which is
+ * then reconfigured to the requested size. Idle bitmaps are capped at maxBytes;
+ * anything released beyond that is recycled. Callers clear pixels themselves.
+ * Safe to use from the render thread and the encoder pool at the same time.
+ */
+class BitmapPool {
+
+    private static final int BUCKET_BYTES = 512 * 1024;
+    // How many buckets larger than needed an idle bitmap may be and still be reused
+    private static final int MAX_OVERSIZE_BUCKETS = 2;
+
+    private final long maxBytes;
+    private final TreeMap<Integer, ArrayDeque<Bitmap>> idle = new TreeMap<>();
+    private long idleBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    BitmapPool(long maxBytes) {
+        this.maxBytes = Math.max(0, maxBytes);
+    }
+
+    synchronized Bitmap acquire(int width, int height, Bitmap.Config config) {
+        long needed = (long) width * height * bytesPerPixel(config);
+        int first = (int) (needed / BUCKET_BYTES);
+
+        for (Map.Entry<Integer, ArrayDeque<Bitmap>> entry
+                : idle.subMap(first, true, first + MAX_OVERSIZE_BUCKETS, true).entrySet()) {
+            Iterator<Bitmap> it = entry.getValue().iterator();
+            while (it.hasNext()) {
+                Bitmap bitmap = it.next();
+                if (bitmap.getAllocationByteCount() < needed) continue;
+                it.remove();
+                if (entry.getValue().isEmpty()) idle.remove(entry.getKey());
+                idleBytes -= bitmap.getAllocationByteCount();
+                bitmap.reconfigure(width, height, config);
+                hits++;
+                return bitmap;
+            }
+        }
+
+        misses++;
+        return Bitmap.createBitmap(width, height, config);
+    }
+
+    synchronized void release(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled()) return;
+        int size = bitmap.getAllocationByteCount();
+        if (!bitmap.isMutable() || idleBytes + size > maxBytes) {
+            bitmap.recycle();
+            evictions++;
+            return;
+        }
+        int bucket = size / BUCKET_BYTES;
+        ArrayDeque<Bitmap> queue = idle.get(bucket);
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            idle.put(bucket, queue);
+        }
+        queue.add(bitmap);
+        idleBytes += size;
+    }
+
+    /**
+     * Recycles every idle bitmap. Counters are kept.
+     */
+    synchronized void clear() {
+        for (ArrayDeque<Bitmap> queue : idle.values()) {
+            for (Bitmap bitmap : queue) {
+                bitmap.recycle();
+            }
+        }
+        idle.clear();
+        idleBytes = 0;
+    }
+
+    synchronized long hits() {
+        return hits;
+    }
+
+    synchronized long misses() {
+        return misses;
+    }
+
+    synchronized long evictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "bitmap pool " + hits + " hits / " + misses + " misses / " + evictions + " evicted";
+    }
+
+    private static int bytesPerPixel(Bitmap.Config config) {
+        return config == Bitmap.Config.RGB_565 ? 2 : 4;
+    }
+}
@@ -0,0 +1,455 @@
+package com.hanu.pdfconverter;
+
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.ServiceInfo;
+import android.net.Uri;
+import android.os.Build;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.core.app.NotificationCompat;
+import androidx.work.Data;
+import androidx.work.ForegroundInfo;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConversionWorker - Runs a single or batch conversion as WorkManager work, outside any Activity.
+ *
+ * ConvertActivity only enqueues the work and observes its WorkInfo, so rotating
+ * the screen or leaving the app no longer stops a conversion:
+ *  - The work runs in the foreground with a progress notification and a Cancel
+ *    action; a second notification reports the result and reopens ConvertActivity
+ *  - Input PDFs are first copied into the job's directory under files/jobs/, so a
+ *    rerun can still read them after the picker's Uri grant has lapsed; a failed
+ *    job keeps its copies and reports them (KEY_INPUT_COPIES), so Retry, even from
+ *    the notification after the process died, converts the copies instead
+ *  - Every finished page is checkpointed in the ConversionCache (text, cell grid,
+ *    slide image, OCR result) as it completes; when WorkManager reruns work that
+ *    was stopped or killed, cached pages are read back instead of parsed, rendered
+ *    or recognized again, and only the output files are assembled from scratch
+ *
+ * Progress goes out as WorkInfo progress (KEY_PROGRESS, KEY_STATUS) and the result
+ * as output data; a single conversion's metrics are saved next to the job.
+ */
+public class ConversionWorker extends Worker {
+
+    // Input
+    public static final String KEY_URIS = "uris";
+    public static final String KEY_NAMES = "names";
+    public static final String KEY_FORMAT = "format";
+    public static final String KEY_OUTPUTS = "outputs";
+    public static final String KEY_BATCH = "batch";
+    public static final String KEY_PAGES = "pages";
+
+    // Progress
+    public static final String KEY_PROGRESS = "progress";
+    public static final String KEY_STATUS = "status";
+
+    // Output
+    public static final String KEY_ERROR = "error";
+    public static final String KEY_SUCCEEDED = "succeeded";
+    public static final String KEY_SUCCEEDED_OUTPUTS = "succeeded_outputs";
+    public static final String KEY_OUTPUT_BYTES = "output_bytes";
+    public static final String KEY_SUMMARY = "summary";
+    public static final String KEY_METRICS_TEXT = "metrics_text";
+    public static final String KEY_METRICS_JSON = "metrics_json";
+    // file:// Uris of a failed job's input copies, in input order; Retry passes them as the uris
+    public static final String KEY_INPUT_COPIES = "input_copies";
+
+    /** Extra carrying the work id when a notification reopens ConvertActivity. */
+    public static final String EXTRA_WORK_ID = "work_id";
+
+    private static final String TAG = "ConversionWorker";
+    private static final String CHANNEL_ID = "conversions";
+    private static final String JOBS_DIR = "jobs";
+    // Job directories (copied inputs, metrics) are pruned after this long
+    private static final long JOB_RETENTION_MS = TimeUnit.DAYS.toMillis(1);
+
+    private final CancellationToken cancellation = new CancellationToken();
+    private volatile BatchConverter batchConverter;
+    private NotificationManager notifications;
+    private int notificationId;
+    // Set when the job fails with its inputs copied; the result notification retries from them
+    private String[] retryUris;
+
+    public ConversionWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Builds the work request for one PDF (batch false) or several converted on a shared pool.
+     * pages is a PageSelection in text form, applied to every PDF; null converts all pages.
+     */
+    public static OneTimeWorkRequest request(List<String> uris, List<String> names, String format,
+                                             List<File> outputs, boolean batch, String pages) {
+        String[] outputPaths = new String[outputs.size()];
+        for (int i = 0; i < outputPaths.length; i++) outputPaths[i] = outputs.get(i).getPath();
+        Data input = new Data.Builder()
+            .putStringArray(KEY_URIS, uris.toArray(new String[0]))
+            .putStringArray(KEY_NAMES, names.toArray(new String[0]))
+            .putString(KEY_FORMAT, format)
+            .putStringArray(KEY_OUTPUTS, outputPaths)
+            .putBoolean(KEY_BATCH, batch)
+            .putString(KEY_PAGES, pages)
+            .build();
+        return new OneTimeWorkRequest.Builder(ConversionWorker.class)
+            .setInputData(input)
+            .build();
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        Data input = getInputData();
+        String[] uris = input.getStringArray(KEY_URIS);
+        String[] names = input.getStringArray(KEY_NAMES);
+        String[] outputs = input.getStringArray(KEY_OUTPUTS);
+        String format = input.getString(KEY_FORMAT);
+        if (uris == null || names == null || outputs == null || format == null
+                || uris.length == 0 || uris.length != outputs.length) {
+            return Result.failure(error("Nothing to convert."));
+        }
+
+        notifications = (NotificationManager) getApplicationContext()
+            .getSystemService(Context.NOTIFICATION_SERVICE);
+        notificationId = getId().hashCode();
+        createChannel();
+        setForegroundAsync(foregroundInfo(0, "Starting…"));
+
+        File jobDir = new File(new File(getApplicationContext().getFilesDir(), JOBS_DIR), getId().toString());
+        pruneOldJobs(jobDir.getParentFile(), uris);
+        List<Uri> inputs = new ArrayList<>(uris.length);
+        try {
+            boolean resuming = getRunAttemptCount() > 0 || jobDir.isDirectory();
+            onProgress(0, resuming ? "Resuming from the last finished page…" : "Reading PDF file…");
+
+            for (int i = 0; i < uris.length; i++) {
+                inputs.add(localCopy(Uri.parse(uris[i]), new File(jobDir, "input-" + i + ".pdf")));
+            }
+
+            PageSelection selection = PageSelection.parse(input.getString(KEY_PAGES));
+            Data output = input.getBoolean(KEY_BATCH, false)
+                ? convertBatch(inputs, names, format, outputs, selection)
+                : convertSingle(inputs.get(0), format, new File(outputs[0]), jobDir, selection);
+            notifyFinished(true, "Tap to open or share.");
+            deleteInputs(jobDir, inputs);
+            return Result.success(output);
+        } catch (CancellationException | InterruptedException e) {
+            // Stopped; WorkManager reruns the work unless it was cancelled, so the inputs stay
+            return Result.failure(error("Conversion cancelled."));
+        } catch (Exception e) {
+            if (isStopped()) return Result.failure(error("Conversion cancelled."));
+            Log.w(TAG, "Conversion " + getId() + " failed", e);
+            Data.Builder output = new Data.Builder().putAll(error(e.getMessage()));
+            // Keep the copies for Retry; the picker's grant may be gone by then
+            if (inputs.size() == uris.length) {
+                String[] copies = new String[inputs.size()];
+                for (int i = 0; i < copies.length; i++) copies[i] = inputs.get(i).toString();
+                output.putStringArray(KEY_INPUT_COPIES, copies);
+                retryUris = copies;
+            }
+            Data result = output.build();
+            notifyFinished(false, result.getString(KEY_ERROR));
+            return Result.failure(result);
+        }
+    }
+
+    @Override
+    public void onStopped() {
+        cancellation.cancel();
+        BatchConverter batch = batchConverter;
+        if (batch != null) batch.cancel();
+    }
+
+    private Data convertSingle(Uri pdfUri, String format, File outputFile, File jobDir,
+                               PageSelection selection) throws Exception {
+        PdfConverter converter = new PdfConverter(getApplicationContext());
+        converter.setCancellationToken(cancellation);
+        converter.setPageSelection(selection);
+        converter.setMetricsEnabled(true);
+        converter.setProgressCallback(this::onProgress);
+        converter.convert(pdfUri, format, outputFile);
+
+        Data.Builder output = new Data.Builder()
+            .putInt(KEY_SUCCEEDED, 1)
+            .putStringArray(KEY_SUCCEEDED_OUTPUTS, new String[]{outputFile.getPath()})
+            .putLong(KEY_OUTPUT_BYTES, outputFile.length());
+        ConversionMetrics metrics = converter.getLastMetrics();
+        if (metrics != null) {
+            // Per-page reports outgrow WorkManager's Data limit, so they go to files
+            output.putString(KEY_METRICS_TEXT, writeText(new File(jobDir, "metrics.txt"), metrics.toString()));
+            output.putString(KEY_METRICS_JSON, writeText(new File(jobDir, "metrics.json"), metrics.toJson()));
+        }
+        return output.build();
+    }
+
+    private Data convertBatch(List<Uri> inputs, String[] names, String format, String[] outputs,
+                              PageSelection selection) throws Exception {
+        List<BatchConverter.Job> jobs = new ArrayList<>(inputs.size());
+        for (int i = 0; i < inputs.size(); i++) {
+            String name = i < names.length && !names[i].isEmpty() ? names[i] : "PDF " + (i + 1);
+            jobs.add(new BatchConverter.Job(inputs.get(i), format, new File(outputs[i]), name));
+        }
+
+        List<String> succeeded = Collections.synchronizedList(new ArrayList<>());
+        BatchConverter.Summary[] summary = new BatchConverter.Summary[1];
+        CountDownLatch finished = new CountDownLatch(1);
+        batchConverter = new BatchConverter(getApplicationContext());
+        batchConverter.setPageSelection(selection);
+        if (isStopped()) batchConverter.cancel();
+        batchConverter.start(jobs, new BatchConverter.Listener() {
+            @Override
+            public void onProgress(int progress, String status) {
+                ConversionWorker.this.onProgress(progress, status);
+            }
+
+            @Override
+            public void onJobFinished(BatchConverter.Job job, Throwable error) {
+                if (error == null) succeeded.add(job.outputFile.getPath());
+            }
+
+            @Override
+            public void onBatchFinished(BatchConverter.Summary result) {
+                summary[0] = result;
+                finished.countDown();
+            }
+        });
+        finished.await();
+        cancellation.throwIfCancelled();
+        if (isStopped()) throw new CancellationException();
+
+        if (summary[0].succeeded == 0) {
+            throw new IOException("None of the " + summary[0].jobs + " PDFs could be converted.");
+        }
+        return new Data.Builder()
+            .putInt(KEY_SUCCEEDED, summary[0].succeeded)
+            .putStringArray(KEY_SUCCEEDED_OUTPUTS, succeeded.toArray(new String[0]))
+            .putLong(KEY_OUTPUT_BYTES, summary[0].outputBytes)
+            .putString(KEY_SUMMARY, summary[0].toString())
+            .build();
+    }
+
+    /**
+     * Progress from the conversion threads; the engine already coalesces updates.
+     */
+    private synchronized void onProgress(int progress, String status) {
+        setProgressAsync(new Data.Builder()
+            .putInt(KEY_PROGRESS, progress)
+            .putString(KEY_STATUS, status)
+            .build());
+        notifications.notify(notificationId, progressNotification(progress, status));
+    }
+
+    // ─────────────────────────────────────────────
+    // INPUT COPIES
+    // ─────────────────────────────────────────────
+
+    /**
+     * Uri of a copy of the PDF in the job directory, made on the first run and reused on reruns.
+     * file:// inputs are read in place.
+     */
+    private Uri localCopy(Uri uri, File copy) throws IOException {
+        if ("file".equals(uri.getScheme())) return uri;
+        if (!copy.isFile()) {
+            File parent = copy.getParentFile();
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                throw new IOException("Cannot create " + parent);
+            }
+            // Copy under a temp name so a killed copy is never mistaken for a finished one
+            File tmp = new File(parent, copy.getName() + ".tmp");
+            try (InputStream is = getApplicationContext().getContentResolver().openInputStream(uri);
+                 OutputStream os = new FileOutputStream(tmp)) {
+                if (is == null) throw new IOException("Cannot open " + uri);
+                byte[] buffer = new byte[64 * 1024];
+                int n;
+                while ((n = is.read(buffer)) != -1) {
+                    cancellation.throwIfCancelled();
+                    os.write(buffer, 0, n);
+                }
+            } catch (IOException | RuntimeException e) {
+                tmp.delete();
+                throw e;
+            }
+            if (!tmp.renameTo(copy)) {
+                tmp.delete();
+                throw new IOException("Cannot create " + copy);
+            }
+        }
+        return Uri.fromFile(copy);
+    }
+
+    /**
+     * Deletes this job's input copies, and those of a failed job this one retried.
+     */
+    private static void deleteInputs(File jobDir, List<Uri> inputs) {
+        File[] files = jobDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.getName().startsWith("input-")) file.delete();
+            }
+        }
+        File jobsDir = jobDir.getParentFile();
+        for (Uri input : inputs) {
+            File copy = retriedCopy(jobsDir, input.toString());
+            if (copy != null) copy.delete();
+        }
+    }
+
+    /**
+     * The file behind an input Uri if it is another job's input copy, else null.
+     */
+    private static File retriedCopy(File jobsDir, String uri) {
+        Uri parsed = Uri.parse(uri);
+        if (!"file".equals(parsed.getScheme()) || parsed.getPath() == null) return null;
+        File file = new File(parsed.getPath());
+        File job = file.getParentFile();
+        return job != null && jobsDir.equals(job.getParentFile()) && file.getName().startsWith("input-")
+            ? file : null;
+    }
+
+    /**
+     * Deletes job directories older than JOB_RETENTION_MS, except those holding copies this job retries.
+     */
+    private static void pruneOldJobs(File jobsDir, String[] uris) {
+        File[] jobs = jobsDir.listFiles();
+        if (jobs == null) return;
+        List<File> inUse = new ArrayList<>();
+        for (String uri : uris) {
+            File copy = retriedCopy(jobsDir, uri);
+            if (copy != null) inUse.add(copy.getParentFile());
+        }
+        long cutoff = System.currentTimeMillis() - JOB_RETENTION_MS;
+        for (File job : jobs) {
+            if (job.lastModified() >= cutoff || inUse.contains(job)) continue;
+            File[] files = job.listFiles();
+            if (files != null) {
+                for (File file : files) file.delete();
+            }
+            job.delete();
+        }
+    }
+
+    private static String writeText(File file, String text) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory()) parent.mkdirs();
+        try (OutputStream os = new FileOutputStream(file)) {
+            os.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return file.getPath();
+    }
+
+    private static Data error(String message) {
+        return new Data.Builder()
+            .putString(KEY_ERROR, message != null ? message : "An unknown error occurred. Please try again.")
+            .build();
+    }
+
+    // ─────────────────────────────────────────────
+    // NOTIFICATIONS
+    // ─────────────────────────────────────────────
+
+    private void createChannel() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.O) return;
+        NotificationChannel channel = new NotificationChannel(CHANNEL_ID, "Conversions",
+            NotificationManager.IMPORTANCE_LOW);
+        channel.setDescription("Progress and results of PDF conversions");
+        notifications.createNotificationChannel(channel);
+    }
+
+    private ForegroundInfo foregroundInfo(int progress, String status) {
+        Notification notification = progressNotification(progress, status);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            return new ForegroundInfo(notificationId, notification, ServiceInfo.FOREGROUND_SERVICE_TYPE_DATA_SYNC);
+        }
+        return new ForegroundInfo(notificationId, notification);
+    }
+
+    private Notification progressNotification(int progress, String status) {
+        PendingIntent cancel = WorkManager.getInstance(getApplicationContext()).createCancelPendingIntent(getId());
+        return new NotificationCompat.Builder(getApplicationContext(), CHANNEL_ID)
+            .setSmallIcon(R.drawable.ic_notification)
+            .setContentTitle(title())
+            .setContentText(status)
+            .setProgress(100, progress, false)
+            .setContentIntent(openIntent())
+            .setOngoing(true)
+            .setOnlyAlertOnce(true)
+            .addAction(0, "Cancel", cancel)
+            .build();
+    }
+
+    private void notifyFinished(boolean success, String text) {
+        notifications.notify(notificationId + 1, new NotificationCompat.Builder(getApplicationContext(), CHANNEL_ID)
+            .setSmallIcon(R.drawable.ic_notification)
+            .setContentTitle(success ? "Conversion finished" : "Conversion failed")
+            .setContentText(text)
+            .setContentIntent(openIntent())
+            .setAutoCancel(true)
+            .build());
+    }
+
+    private String title() {
+        String[] names = getInputData().getStringArray(KEY_NAMES);
+        if (names != null && names.length > 1) return "Converting " + names.length + " PDFs";
+        return names != null && names.length == 1 && !names[0].isEmpty() ? "Converting " + names[0] : "Converting PDF";
+    }
+
+    /**
+     * Reopens ConvertActivity on this work, with the request for Retry: the original
+     * inputs, or their copies once the job has failed.
+     */
+    private PendingIntent openIntent() {
+        Context context = getApplicationContext();
+        Data input = getInputData();
+        String[] uris = retryUris != null ? retryUris : input.getStringArray(KEY_URIS);
+        String[] names = input.getStringArray(KEY_NAMES);
+        Intent intent = new Intent(context, ConvertActivity.class)
+            .putExtra(EXTRA_WORK_ID, getId().toString())
+            .putExtra("format", input.getString(KEY_FORMAT))
+            .putExtra("pdf_uri", uris[0])
+            .putExtra("file_name", names.length > 0 ? names[0] : null)
+            .putExtra("pages", input.getString(KEY_PAGES))
+            .addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+        if (input.getBoolean(KEY_BATCH, false)) {
+            ArrayList<String> uriList = new ArrayList<>();
+            Collections.addAll(uriList, uris);
+            ArrayList<String> nameList = new ArrayList<>();
+            Collections.addAll(nameList, names);
+            intent.putStringArrayListExtra("pdf_uris", uriList);
+            intent.putStringArrayListExtra("file_names", nameList);
+        }
+        int flags = PendingIntent.FLAG_UPDATE_CURRENT
+            | (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M ? PendingIntent.FLAG_IMMUTABLE : 0);
+        return PendingIntent.getActivity(context, notificationId, intent, flags);
+    }
+
+    /**
+     * Work id passed back by a notification, or null.
+     */
+    static UUID workIdFrom(Intent intent) {
+        String id = intent.getStringExtra(EXTRA_WORK_ID);
+        return id != null ? UUID.fromString(id) : null;
+    }
+}
@@ -1,22 +1,48 @@
 package com.hanu.pdfconverter;
 
+import android.Manifest;
 import android.content.Intent;
+import android.content.pm.PackageManager;
 import android.net.Uri;
+import android.os.Build;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
 import android.view.View;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.app.ActivityCompat;
+import androidx.core.content.ContextCompat;
 import androidx.core.content.FileProvider;
+import androidx.lifecycle.LiveData;
+import androidx.work.Data;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
 import com.google.android.material.button.MaterialButton;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * ConvertActivity - Shows one conversion, which runs as a ConversionWorker.
+ *
+ * The activity enqueues the work and follows its WorkInfo; it never runs or cancels
+ * the conversion itself. After rotation, or when reopened from the notification,
+ * it attaches to the same work by id and picks up its progress or result.
+ */
 public class ConvertActivity extends AppCompatActivity {
 
+    private static final String STATE_WORK_ID = "work_id";
+
     private ProgressBar progressBar;
     private TextView tvStatus;
     private TextView tvProgress;
@@ -32,10 +58,21 @@ public class ConvertActivity extends AppCompatActivity {
     private String pdfUriString;
     private String format;
     private String inputFileName;
+    private String pages;
     private File outputFile;
+    private String metricsText;
+    private String metricsJsonPath;
 
-    private final ExecutorService executor = Executors.newSingleThreadExecutor();
-    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Batch mode: several PDFs converted on a shared pool
+    private ArrayList<String> batchUris;
+    private ArrayList<String> batchNames;
+    private final List<File> batchOutputs = new ArrayList<>();
+    private int batchSucceeded;
+    private long batchOutputBytes;
+    private String batchSummary;
+
+    private UUID workId;
+    private LiveData<WorkInfo> workInfo;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -45,9 +82,39 @@ public class ConvertActivity extends AppCompatActivity {
         pdfUriString = getIntent().getStringExtra("pdf_uri");
         format = getIntent().getStringExtra("format");
         inputFileName = getIntent().getStringExtra("file_name");
+        pages = getIntent().getStringExtra("pages");
+        batchUris = getIntent().getStringArrayListExtra("pdf_uris");
+        batchNames = getIntent().getStringArrayListExtra("file_names");
+        if (batchUris != null) dropRepeatedPdfs();
 
         initViews();
-        startConversion();
+
+        workId = savedInstanceState != null && savedInstanceState.getString(STATE_WORK_ID) != null
+            ? UUID.fromString(savedInstanceState.getString(STATE_WORK_ID))
+            : ConversionWorker.workIdFrom(getIntent());
+        if (workId != null) {
+            observeWork();
+        } else {
+            requestNotificationPermission();
+            startConversion();
+        }
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (workId != null) outState.putString(STATE_WORK_ID, workId.toString());
+    }
+
+    /**
+     * The conversion's progress notification needs this on Android 13+; it runs either way.
+     */
+    private void requestNotificationPermission() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ContextCompat.checkSelfPermission(this, Manifest.permission.POST_NOTIFICATIONS)
+                    != PackageManager.PERMISSION_GRANTED) {
+            ActivityCompat.requestPermissions(this, new String[]{Manifest.permission.POST_NOTIFICATIONS}, 0);
+        }
     }
 
     private void initViews() {
@@ -63,7 +130,8 @@ public class ConvertActivity extends AppCompatActivity {
         btnConvertAnother = findViewById(R.id.btn_convert_another);
         btnRetry = findViewById(R.id.btn_retry);
 
-        tvFileName.setText(inputFileName != null ? inputFileName : "your PDF");
+        tvFileName.setText(batchUris != null ? batchUris.size() + " PDFs"
+            : inputFileName != null ? inputFileName : "your PDF");
 
         layoutSuccess.setVisibility(View.GONE);
         layoutError.setVisibility(View.GONE);
@@ -79,46 +147,141 @@ public class ConvertActivity extends AppCompatActivity {
         btnOpenFile.setOnClickListener(v -> openFile());
     }
 
+    /**
+     * Enqueues the conversion. Retry enqueues it again; pages finished by the failed
+     * run come back from the page cache, so it resumes where that run stopped.
+     */
     private void startConversion() {
-        Uri pdfUri = Uri.parse(pdfUriString);
-        updateProgress(0, "Reading PDF file…");
-
-        executor.execute(() -> {
-            try {
-                PdfConverter converter = new PdfConverter(this);
-                converter.setProgressCallback((progress, status) ->
-                    mainHandler.post(() -> updateProgress(progress, status))
-                );
-
-                String outputFileName = getOutputFileName();
-                File outputDir = new File(getExternalFilesDir(null), "Hanu_Converted");
-                if (!outputDir.exists()) outputDir.mkdirs();
-                outputFile = new File(outputDir, outputFileName);
-
-                switch (format) {
-                    case "excel":
-                        converter.pdfToExcel(pdfUri, outputFile);
-                        break;
-                    case "word":
-                        converter.pdfToWord(pdfUri, outputFile);
-                        break;
-                    case "ppt":
-                        converter.pdfToPowerPoint(pdfUri, outputFile);
-                        break;
-                }
-
-                mainHandler.post(() -> showSuccess());
-
-            } catch (Exception e) {
-                e.printStackTrace();
-                mainHandler.post(() -> showError(e.getMessage()));
+        List<String> uris = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        List<File> outputs = new ArrayList<>();
+        File outputDir = getOutputDir();
+        if (batchUris != null) {
+            for (int i = 0; i < batchUris.size(); i++) {
+                String name = batchNames != null && i < batchNames.size() ? batchNames.get(i) : null;
+                uris.add(batchUris.get(i));
+                names.add(name != null ? name : "");
+                outputs.add(new File(outputDir, getOutputFileName(name)));
             }
-        });
+        } else {
+            uris.add(pdfUriString);
+            names.add(inputFileName != null ? inputFileName : "");
+            outputs.add(new File(outputDir, getOutputFileName(inputFileName)));
+        }
+        updateProgress(0, batchUris != null ? "Queuing " + batchUris.size() + " PDFs…" : "Reading PDF file…");
+
+        OneTimeWorkRequest request =
+            ConversionWorker.request(uris, names, format, outputs, batchUris != null, pages);
+        WorkManager.getInstance(this).enqueue(request);
+        workId = request.getId();
+        observeWork();
+    }
+
+    private void observeWork() {
+        if (workInfo != null) workInfo.removeObservers(this);
+        workInfo = WorkManager.getInstance(this).getWorkInfoByIdLiveData(workId);
+        workInfo.observe(this, this::onWorkInfo);
+    }
+
+    private void onWorkInfo(WorkInfo info) {
+        if (info == null) {
+            // Pruned by WorkManager, e.g. reopened from an old notification
+            showError("This conversion is no longer available. Please try again.");
+            return;
+        }
+        switch (info.getState()) {
+            case ENQUEUED:
+            case BLOCKED:
+                break;
+            case RUNNING:
+                Data progress = info.getProgress();
+                String status = progress.getString(ConversionWorker.KEY_STATUS);
+                if (status != null) updateProgress(progress.getInt(ConversionWorker.KEY_PROGRESS, 0), status);
+                break;
+            case SUCCEEDED:
+                readResult(info.getOutputData());
+                showSuccess();
+                break;
+            case FAILED:
+                useInputCopies(info.getOutputData().getStringArray(ConversionWorker.KEY_INPUT_COPIES));
+                showError(info.getOutputData().getString(ConversionWorker.KEY_ERROR));
+                break;
+            case CANCELLED:
+                showError("Conversion cancelled.");
+                break;
+        }
+    }
+
+    /**
+     * Keeps only the first pick of a PDF selected more than once, with its name;
+     * converting it again would only write the same output twice.
+     */
+    private void dropRepeatedPdfs() {
+        ArrayList<String> uris = new ArrayList<>();
+        ArrayList<String> names = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (int i = 0; i < batchUris.size(); i++) {
+            if (!seen.add(batchUris.get(i))) continue;
+            uris.add(batchUris.get(i));
+            names.add(batchNames != null && i < batchNames.size() ? batchNames.get(i) : null);
+        }
+        batchUris = uris;
+        batchNames = names;
+    }
+
+    /**
+     * Points Retry at the failed job's input copies; the picker's Uri grant may have lapsed.
+     */
+    private void useInputCopies(String[] copies) {
+        if (copies == null || copies.length == 0) return;
+        if (batchUris != null) {
+            if (copies.length != batchUris.size()) return;
+            batchUris = new ArrayList<>();
+            Collections.addAll(batchUris, copies);
+        } else {
+            pdfUriString = copies[0];
+        }
+    }
+
+    private void readResult(Data output) {
+        String[] paths = output.getStringArray(ConversionWorker.KEY_SUCCEEDED_OUTPUTS);
+        batchOutputs.clear();
+        if (paths != null) {
+            for (String path : paths) batchOutputs.add(new File(path));
+        }
+        outputFile = batchOutputs.isEmpty() ? null : batchOutputs.get(0);
+        batchSucceeded = output.getInt(ConversionWorker.KEY_SUCCEEDED, 0);
+        batchOutputBytes = output.getLong(ConversionWorker.KEY_OUTPUT_BYTES, 0);
+        batchSummary = output.getString(ConversionWorker.KEY_SUMMARY);
+
+        String metricsPath = output.getString(ConversionWorker.KEY_METRICS_TEXT);
+        metricsText = metricsPath != null ? readText(new File(metricsPath)) : null;
+        metricsJsonPath = output.getString(ConversionWorker.KEY_METRICS_JSON);
     }
 
-    private String getOutputFileName() {
-        String baseName = inputFileName != null
-            ? inputFileName.replace(".pdf", "").replace(".PDF", "")
+    private static String readText(File file) {
+        try (InputStream is = new FileInputStream(file)) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8 * 1024];
+            int n;
+            while ((n = is.read(buffer)) != -1) {
+                bos.write(buffer, 0, n);
+            }
+            return new String(bos.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private File getOutputDir() {
+        File outputDir = new File(getExternalFilesDir(null), "Hanu_Converted");
+        if (!outputDir.exists()) outputDir.mkdirs();
+        return outputDir;
+    }
+
+    private String getOutputFileName(String inputName) {
+        String baseName = inputName != null
+            ? inputName.replace(".pdf", "").replace(".PDF", "")
             : "converted";
 
         switch (format) {
@@ -143,12 +306,28 @@ public class ConvertActivity extends AppCompatActivity {
         TextView tvSuccessName = findViewById(R.id.tv_success_filename);
         TextView tvSuccessSize = findViewById(R.id.tv_success_size);
         TextView tvSuccessFormat = findViewById(R.id.tv_success_format);
+        TextView tvSuccessMetrics = findViewById(R.id.tv_success_metrics);
 
-        if (outputFile != null && outputFile.exists()) {
+        if (batchUris != null && batchSummary != null) {
+            tvSuccessName.setText(batchSucceeded + " files converted");
+            tvSuccessSize.setText(formatFileSize(batchOutputBytes) + " · " + batchSummary);
+        } else if (outputFile != null && outputFile.exists()) {
             tvSuccessName.setText(outputFile.getName());
             tvSuccessSize.setText(formatFileSize(outputFile.length()));
         }
 
+        // Per-stage breakdown stays hidden until the size line is tapped; long-press shares the JSON report
+        tvSuccessMetrics.setVisibility(View.GONE);
+        if (metricsText != null) {
+            tvSuccessMetrics.setText(metricsText);
+            tvSuccessSize.setOnClickListener(v -> tvSuccessMetrics.setVisibility(
+                tvSuccessMetrics.getVisibility() == View.VISIBLE ? View.GONE : View.VISIBLE));
+            tvSuccessMetrics.setOnLongClickListener(v -> {
+                shareMetrics();
+                return true;
+            });
+        }
+
         String formatLabel = "";
         switch (format) {
             case "excel": formatLabel = "Excel Spreadsheet (.xlsx)"; break;
@@ -168,6 +347,10 @@ public class ConvertActivity extends AppCompatActivity {
     }
 
     private void shareFile() {
+        if (batchUris != null) {
+            shareBatchFiles();
+            return;
+        }
         if (outputFile == null || !outputFile.exists()) return;
         Uri fileUri = FileProvider.getUriForFile(this,
             getPackageName() + ".provider", outputFile);
@@ -180,7 +363,37 @@ public class ConvertActivity extends AppCompatActivity {
         startActivity(Intent.createChooser(shareIntent, "Share converted file"));
     }
 
+    private void shareMetrics() {
+        String json = metricsJsonPath != null ? readText(new File(metricsJsonPath)) : null;
+        if (json == null) return;
+        Intent shareIntent = new Intent(Intent.ACTION_SEND);
+        shareIntent.setType("application/json");
+        shareIntent.putExtra(Intent.EXTRA_SUBJECT, "Hanu conversion metrics");
+        shareIntent.putExtra(Intent.EXTRA_TEXT, json);
+        startActivity(Intent.createChooser(shareIntent, "Share conversion metrics"));
+    }
+
+    private void shareBatchFiles() {
+        ArrayList<Uri> fileUris = new ArrayList<>();
+        for (File file : batchOutputs) {
+            if (file.exists()) {
+                fileUris.add(FileProvider.getUriForFile(this, getPackageName() + ".provider", file));
+            }
+        }
+        if (fileUris.isEmpty()) return;
+
+        Intent shareIntent = new Intent(Intent.ACTION_SEND_MULTIPLE);
+        shareIntent.setType(getMimeType());
+        shareIntent.putParcelableArrayListExtra(Intent.EXTRA_STREAM, fileUris);
+        shareIntent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        startActivity(Intent.createChooser(shareIntent, "Share converted files"));
+    }
+
     private void openFile() {
+        if (batchUris != null) {
+            shareBatchFiles(); // No single file to open
+            return;
+        }
         if (outputFile == null || !outputFile.exists()) return;
         Uri fileUri = FileProvider.getUriForFile(this,
             getPackageName() + ".provider", outputFile);
@@ -210,10 +423,4 @@ public class ConvertActivity extends AppCompatActivity {
         else if (bytes < 1024 * 1024) return String.format("%.1f KB", bytes / 1024.0);
         else return String.format("%.1f MB", bytes / (1024.0 * 1024));
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        executor.shutdownNow();
-    }
 }
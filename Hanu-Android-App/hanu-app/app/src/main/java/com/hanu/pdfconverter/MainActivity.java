@@ -1,6 +1,7 @@
 package com.hanu.pdfconverter;
 
 import android.Manifest;
+import android.content.ClipData;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.database.Cursor;
@@ -19,12 +20,17 @@ import androidx.core.content.ContextCompat;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.card.MaterialCardView;
 import com.google.android.material.snackbar.Snackbar;
+import com.google.android.material.textfield.TextInputEditText;
+import com.google.android.material.textfield.TextInputLayout;
 import java.util.ArrayList;
 import java.util.List;
 
 public class MainActivity extends AppCompatActivity {
 
     private Uri selectedPdfUri = null;
+    // All picked PDFs; more than one switches ConvertActivity to batch mode
+    private final ArrayList<Uri> selectedPdfUris = new ArrayList<>();
+    private final ArrayList<String> selectedFileNames = new ArrayList<>();
     private String selectedFormat = null; // "excel", "word", "ppt"
 
     private TextView tvFileName;
@@ -33,14 +39,25 @@ public class MainActivity extends AppCompatActivity {
     private View placeholderCard;
     private MaterialCardView cardExcel, cardWord, cardPpt;
     private MaterialButton btnConvert;
+    private TextInputLayout pagesInputLayout;
+    private TextInputEditText etPages;
     private View selectedIndicatorExcel, selectedIndicatorWord, selectedIndicatorPpt;
 
     private final ActivityResultLauncher<Intent> pdfPickerLauncher =
         registerForActivityResult(new ActivityResultContracts.StartActivityForResult(), result -> {
             if (result.getResultCode() == RESULT_OK && result.getData() != null) {
-                selectedPdfUri = result.getData().getData();
+                selectedPdfUris.clear();
+                ClipData clip = result.getData().getClipData();
+                if (clip != null) {
+                    for (int i = 0; i < clip.getItemCount(); i++) {
+                        selectedPdfUris.add(clip.getItemAt(i).getUri());
+                    }
+                } else if (result.getData().getData() != null) {
+                    selectedPdfUris.add(result.getData().getData());
+                }
+                selectedPdfUri = selectedPdfUris.isEmpty() ? null : selectedPdfUris.get(0);
                 if (selectedPdfUri != null) {
-                    displayFileInfo(selectedPdfUri);
+                    displayFileInfo(selectedPdfUris);
                 }
             }
         });
@@ -73,6 +90,8 @@ public class MainActivity extends AppCompatActivity {
         cardWord = findViewById(R.id.card_word);
         cardPpt = findViewById(R.id.card_ppt);
         btnConvert = findViewById(R.id.btn_convert);
+        pagesInputLayout = findViewById(R.id.pages_input_layout);
+        etPages = findViewById(R.id.et_pages);
         selectedIndicatorExcel = findViewById(R.id.indicator_excel);
         selectedIndicatorWord = findViewById(R.id.indicator_word);
         selectedIndicatorPpt = findViewById(R.id.indicator_ppt);
@@ -123,26 +142,31 @@ public class MainActivity extends AppCompatActivity {
         Intent intent = new Intent(Intent.ACTION_GET_CONTENT);
         intent.setType("application/pdf");
         intent.addCategory(Intent.CATEGORY_OPENABLE);
+        intent.putExtra(Intent.EXTRA_ALLOW_MULTIPLE, true);
         pdfPickerLauncher.launch(Intent.createChooser(intent, "Select PDF File"));
     }
 
-    private void displayFileInfo(Uri uri) {
-        String fileName = "Unknown File";
-        long fileSize = 0;
-
-        try (Cursor cursor = getContentResolver().query(uri, null, null, null, null)) {
-            if (cursor != null && cursor.moveToFirst()) {
-                int nameIdx = cursor.getColumnIndex(OpenableColumns.DISPLAY_NAME);
-                int sizeIdx = cursor.getColumnIndex(OpenableColumns.SIZE);
-                if (nameIdx != -1) fileName = cursor.getString(nameIdx);
-                if (sizeIdx != -1) fileSize = cursor.getLong(sizeIdx);
+    private void displayFileInfo(List<Uri> uris) {
+        selectedFileNames.clear();
+        long totalSize = 0;
+
+        for (Uri uri : uris) {
+            String fileName = "Unknown File";
+            try (Cursor cursor = getContentResolver().query(uri, null, null, null, null)) {
+                if (cursor != null && cursor.moveToFirst()) {
+                    int nameIdx = cursor.getColumnIndex(OpenableColumns.DISPLAY_NAME);
+                    int sizeIdx = cursor.getColumnIndex(OpenableColumns.SIZE);
+                    if (nameIdx != -1) fileName = cursor.getString(nameIdx);
+                    if (sizeIdx != -1) totalSize += cursor.getLong(sizeIdx);
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
             }
-        } catch (Exception e) {
-            e.printStackTrace();
+            selectedFileNames.add(fileName);
         }
 
-        tvFileName.setText(fileName);
-        tvFileSize.setText(formatFileSize(fileSize));
+        tvFileName.setText(uris.size() == 1 ? selectedFileNames.get(0) : uris.size() + " PDFs selected");
+        tvFileSize.setText(formatFileSize(totalSize));
         placeholderCard.setVisibility(View.GONE);
         fileInfoCard.setVisibility(View.VISIBLE);
 
@@ -214,15 +238,35 @@ public class MainActivity extends AppCompatActivity {
     private void startConversion() {
         if (selectedPdfUri == null || selectedFormat == null) return;
 
+        // Check the range here, so a typo doesn't surface only after the job starts
+        PageSelection pages;
+        try {
+            pages = PageSelection.parse(etPages.getText() != null ? etPages.getText().toString() : null);
+            pagesInputLayout.setError(null);
+        } catch (IllegalArgumentException e) {
+            pagesInputLayout.setError(e.getMessage());
+            showSnackbar("Check the page range, e.g. 3-7, 10, 20-");
+            return;
+        }
+
         Intent intent = new Intent(this, ConvertActivity.class);
         intent.putExtra("pdf_uri", selectedPdfUri.toString());
         intent.putExtra("format", selectedFormat);
         intent.putExtra("file_name", tvFileName.getText().toString());
+        if (!pages.isAll()) intent.putExtra("pages", pages.toString());
+        if (selectedPdfUris.size() > 1) {
+            ArrayList<String> uris = new ArrayList<>();
+            for (Uri uri : selectedPdfUris) uris.add(uri.toString());
+            intent.putStringArrayListExtra("pdf_uris", uris);
+            intent.putStringArrayListExtra("file_names", selectedFileNames);
+        }
         startActivity(intent);
     }
 
     private void removeFile() {
         selectedPdfUri = null;
+        selectedPdfUris.clear();
+        selectedFileNames.clear();
         fileInfoCard.setVisibility(View.GONE);
         placeholderCard.setVisibility(View.VISIBLE);
         updateConvertButton();
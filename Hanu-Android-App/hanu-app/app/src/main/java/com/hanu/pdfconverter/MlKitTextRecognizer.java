@@ -0,0 +1,75 @@
+package com.hanu.pdfconverter;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.mlkit.vision.common.InputImage;
+import com.google.mlkit.vision.text.Text;
+import com.google.mlkit.vision.text.TextRecognition;
+import com.google.mlkit.vision.text.latin.TextRecognizerOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MlKitTextRecognizer - TextRecognizer over ML Kit's on-device Latin text model.
+ *
+ * Works offline; the model ships inside the app. Each tile is copied out of the
+ * page bitmap and passed to ML Kit, and the elements (words) of every recognized
+ * line come back with their boxes. ML Kit only ever sees the copy, which it may
+ * still be reading after a timeout; the copy is recycled once ML Kit is done.
+ * The page bitmap itself is only read during createBitmap(), before recognize()
+ * returns.
+ *
+ * The ML Kit client is created on the first scanned page, so documents with a
+ * text layer never load the model. close() releases the client.
+ */
+class MlKitTextRecognizer implements TextRecognizer {
+
+    private com.google.mlkit.vision.text.TextRecognizer client;
+
+    @Override
+    public List<Word> recognize(RenderedPage page, int left, int top, int width, int height,
+                                long timeoutMillis) throws Exception {
+        Bitmap source = ((AndroidPageRenderer.BitmapPage) page).getBitmap();
+        // A mutable (pooled) source always yields a new bitmap, even for the whole page
+        Bitmap tile = Bitmap.createBitmap(source, left, top, width, height);
+        Task<Text> task;
+        try {
+            task = client().process(InputImage.fromBitmap(tile, 0));
+        } catch (RuntimeException e) {
+            tile.recycle();
+            throw e;
+        }
+        // Recycles the copy when ML Kit is done with it, also after a timeout below
+        task.addOnCompleteListener(done -> tile.recycle());
+        Text text = Tasks.await(task, timeoutMillis, TimeUnit.MILLISECONDS);
+        List<Word> words = new ArrayList<>();
+        for (Text.TextBlock block : text.getTextBlocks()) {
+            for (Text.Line line : block.getLines()) {
+                for (Text.Element element : line.getElements()) {
+                    Rect box = element.getBoundingBox();
+                    if (box == null) continue;
+                    words.add(new Word(element.getText(), box.left, box.top, box.right, box.bottom));
+                }
+            }
+        }
+        return words;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (client != null) {
+            client.close();
+            client = null;
+        }
+    }
+
+    private synchronized com.google.mlkit.vision.text.TextRecognizer client() {
+        if (client == null) client = TextRecognition.getClient(TextRecognizerOptions.DEFAULT_OPTIONS);
+        return client;
+    }
+}
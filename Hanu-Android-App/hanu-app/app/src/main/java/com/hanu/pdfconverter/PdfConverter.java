@@ -1,340 +1,221 @@
 package com.hanu.pdfconverter;
 
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.pdf.PdfRenderer;
 import android.net.Uri;
-import android.os.ParcelFileDescriptor;
+import android.os.Debug;
 
-import org.apache.poi.hssf.usermodel.HSSFWorkbook;
-import org.apache.poi.sl.usermodel.PictureData;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xslf.usermodel.*;
-import org.apache.poi.xssf.usermodel.*;
-import org.apache.poi.xwpf.usermodel.*;
-
-import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
 
 /**
- * PdfConverter - Core engine for converting PDF to Excel, Word, and PowerPoint.
+ * PdfConverter - Android front end of the conversion engine for PDF to Excel, Word, and PowerPoint.
  *
- * Strategy:
- *  - Uses Android's built-in PdfRenderer to render each page as a Bitmap
- *  - Extracts text using com.tom-roush.pdfbox-android for Excel/Word text extraction
- *  - For Excel: organizes text lines as rows/cells
- *  - For Word: inserts text paragraphs + optional page images
- *  - For PPT: each PDF page becomes a slide with the rendered image
+ * The conversion itself lives in converter-core (see ConversionEngine); this class
+ * binds it to Android:
+ *  - Input Uris become an AndroidPdfSource: the PDF is read from a local file,
+ *    copied once from content:// URIs, so com.tom-roush.pdfbox-android parses it
+ *    with random access and a capped heap budget, and Android's built-in PdfRenderer
+ *    renders slides into pooled Bitmaps (see AndroidPageRenderer)
+ *  - Pages without a text layer are read by ML Kit's on-device text recognizer
+ *    (see MlKitTextRecognizer), created per conversion
+ *  - The page cache lives in the app's files dir
+ *  - Metrics, when enabled, take thread CPU time from android.os.Debug
  */
 public class PdfConverter {
 
-    public interface ProgressCallback {
-        void onProgress(int progress, String status);
+    public interface ProgressCallback extends ConversionEngine.ProgressCallback {
     }
 
+    public static final String FORMAT_EXCEL = ConversionEngine.FORMAT_EXCEL;
+    public static final String FORMAT_WORD = ConversionEngine.FORMAT_WORD;
+    public static final String FORMAT_PPT = ConversionEngine.FORMAT_PPT;
+
+    // Heap each PDFBox document may use for parser buffers before spilling to scratch files
+    private static final long DEFAULT_PDFBOX_HEAP_LIMIT = 16L * 1024 * 1024;
+
     private final Context context;
-    private ProgressCallback progressCallback;
+    private final ConversionEngine engine = new ConversionEngine();
+    private final BitmapPool bitmapPool;
+    private long pdfBoxHeapLimit = DEFAULT_PDFBOX_HEAP_LIMIT;
+    private boolean ocrEnabled = true;
 
     public PdfConverter(Context context) {
+        this(context, defaultBitmapPoolBytes());
+    }
+
+    /**
+     * Caps the idle page bitmaps kept for reuse at bitmapPoolBytes; BatchConverter
+     * splits the default cap between the PDFs it converts in parallel.
+     */
+    PdfConverter(Context context, long bitmapPoolBytes) {
         this.context = context;
+        this.bitmapPool = new BitmapPool(bitmapPoolBytes);
+        engine.setCpuClock(Debug::threadCpuTimeNanos);
+        setCacheEnabled(true);
+    }
+
+    /**
+     * Default cap on idle page bitmaps kept for reuse: 1/8 of the heap.
+     */
+    static long defaultBitmapPoolBytes() {
+        return Runtime.getRuntime().maxMemory() / 8;
     }
 
     public void setProgressCallback(ProgressCallback callback) {
-        this.progressCallback = callback;
+        engine.setProgressCallback(callback);
     }
 
-    private void reportProgress(int progress, String status) {
-        if (progressCallback != null) {
-            progressCallback.onProgress(progress, status);
-        }
+    /**
+     * Token checked between pages and rows; cancelling it stops the conversion in progress.
+     */
+    public void setCancellationToken(CancellationToken token) {
+        engine.setCancellationToken(token);
     }
 
-    // ─────────────────────────────────────────────
-    // PDF TO EXCEL
-    // ─────────────────────────────────────────────
-    public void pdfToExcel(Uri pdfUri, File outputFile) throws Exception {
-        reportProgress(5, "Opening PDF…");
-
-        List<String> allLines = extractTextLines(pdfUri);
-
-        reportProgress(40, "Building Excel spreadsheet…");
-
-        XSSFWorkbook workbook = new XSSFWorkbook();
-        XSSFSheet sheet = workbook.createSheet("Converted PDF");
-
-        // Styles
-        XSSFCellStyle headerStyle = workbook.createCellStyle();
-        XSSFFont headerFont = workbook.createFont();
-        headerFont.setBold(true);
-        headerFont.setFontHeightInPoints((short) 11);
-        headerStyle.setFont(headerFont);
-        headerStyle.setFillForegroundColor(new XSSFColor(new byte[]{(byte)34, (byte)139, (byte)87}, null));
-        headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        XSSFFont whiteFont = workbook.createFont();
-        whiteFont.setColor(new XSSFColor(new byte[]{(byte)255, (byte)255, (byte)255}, null));
-        whiteFont.setBold(true);
-
-        XSSFCellStyle contentStyle = workbook.createCellStyle();
-        contentStyle.setWrapText(true);
-
-        XSSFCellStyle altRowStyle = workbook.createCellStyle();
-        altRowStyle.setFillForegroundColor(new XSSFColor(new byte[]{(byte)242, (byte)247, (byte)244}, null));
-        altRowStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        altRowStyle.setWrapText(true);
-
-        int rowNum = 0;
-        int totalLines = allLines.size();
-
-        for (int i = 0; i < totalLines; i++) {
-            String line = allLines.get(i).trim();
-            if (line.isEmpty()) continue;
-
-            Row row = sheet.createRow(rowNum++);
-            String[] cells = line.split("\t|  {2,}"); // tab or multiple spaces = column
-
-            for (int c = 0; c < cells.length; c++) {
-                Cell cell = row.createCell(c);
-                cell.setCellValue(cells[c].trim());
-                if (rowNum == 1) {
-                    cell.setCellStyle(headerStyle);
-                } else if (rowNum % 2 == 0) {
-                    cell.setCellStyle(altRowStyle);
-                } else {
-                    cell.setCellStyle(contentStyle);
-                }
-            }
-
-            int progress = 40 + (int) ((i / (float) totalLines) * 45);
-            reportProgress(progress, "Writing row " + rowNum + " of ~" + totalLines + "…");
-        }
+    /**
+     * Number of threads used to extract page text. Each worker holds its own copy of
+     * the parsed document, so more workers trade memory for speed on long PDFs.
+     */
+    public void setExtractionWorkers(int workers) {
+        engine.setExtractionWorkers(workers);
+    }
 
-        // Auto-size columns
-        if (sheet.getRow(0) != null) {
-            for (int c = 0; c < sheet.getRow(0).getLastCellNum(); c++) {
-                sheet.autoSizeColumn(c);
-            }
-        }
+    /**
+     * Number of PowerPoint pages that may be rendered ahead of slide assembly.
+     * Each one holds a full-page bitmap or its encoded image until it is added.
+     */
+    public void setSlideQueueDepth(int depth) {
+        engine.setSlideQueueDepth(depth);
+    }
 
-        reportProgress(90, "Saving Excel file…");
-        try (FileOutputStream fos = new FileOutputStream(outputFile)) {
-            workbook.write(fos);
-        }
-        workbook.close();
-        reportProgress(100, "Done!");
+    /**
+     * Streams Word output to a temp file instead of building it in memory (the default).
+     */
+    public void setStreamingWord(boolean streaming) {
+        engine.setStreamingWord(streaming);
     }
 
-    // ─────────────────────────────────────────────
-    // PDF TO WORD
-    // ─────────────────────────────────────────────
-    public void pdfToWord(Uri pdfUri, File outputFile) throws Exception {
-        reportProgress(5, "Opening PDF…");
-
-        int pageCount = getPdfPageCount(pdfUri);
-        reportProgress(15, "Found " + pageCount + " pages…");
-
-        XWPFDocument document = new XWPFDocument();
-
-        // Document title
-        XWPFParagraph titlePara = document.createParagraph();
-        titlePara.setAlignment(ParagraphAlignment.CENTER);
-        XWPFRun titleRun = titlePara.createRun();
-        titleRun.setText("Converted by Hanu PDF Converter");
-        titleRun.setBold(true);
-        titleRun.setFontSize(14);
-        titleRun.setColor("1a6b3a");
-        titleRun.addBreak();
-
-        List<String> allLines = extractTextLines(pdfUri);
-
-        reportProgress(50, "Writing document content…");
-
-        // Page separator tracking
-        boolean firstPage = true;
-        int lineIndex = 0;
-
-        for (String line : allLines) {
-            if (line.startsWith("--- Page ")) {
-                if (!firstPage) {
-                    // Add page break
-                    XWPFParagraph breakPara = document.createParagraph();
-                    XWPFRun breakRun = breakPara.createRun();
-                    breakRun.addBreak(org.apache.poi.xwpf.usermodel.BreakType.PAGE);
-                }
-                // Page heading
-                XWPFParagraph pagePara = document.createParagraph();
-                pagePara.setStyle("Heading2");
-                XWPFRun pageRun = pagePara.createRun();
-                pageRun.setText(line.replace("---", "").trim());
-                pageRun.setColor("888888");
-                pageRun.setFontSize(9);
-                firstPage = false;
-            } else if (line.trim().isEmpty()) {
-                document.createParagraph(); // blank line
-            } else {
-                XWPFParagraph para = document.createParagraph();
-                XWPFRun run = para.createRun();
-                run.setText(line);
-                run.setFontFamily("Calibri");
-                run.setFontSize(11);
-
-                // Detect likely headings (short + no period at end)
-                if (line.length() < 60 && !line.endsWith(".") && !line.endsWith(",")) {
-                    run.setBold(true);
-                    run.setFontSize(12);
-                }
-            }
-            lineIndex++;
-            int progress = 50 + (int) ((lineIndex / (float) allLines.size()) * 40);
-            reportProgress(Math.min(progress, 90), "Writing content…");
-        }
+    /**
+     * Joins wrapped lines into paragraphs in Word output (the default).
+     */
+    public void setWordReflow(boolean reflow) {
+        engine.setWordReflow(reflow);
+    }
 
-        reportProgress(93, "Saving Word document…");
-        try (FileOutputStream fos = new FileOutputStream(outputFile)) {
-            document.write(fos);
-        }
-        document.close();
-        reportProgress(100, "Done!");
+    /**
+     * Resolution and image format used for PowerPoint slide images.
+     */
+    public void setSlideImageProfile(SlideImageProfile profile) {
+        engine.setSlideImageProfile(profile);
     }
 
-    // ─────────────────────────────────────────────
-    // PDF TO POWERPOINT
-    // ─────────────────────────────────────────────
-    public void pdfToPowerPoint(Uri pdfUri, File outputFile) throws Exception {
-        reportProgress(5, "Opening PDF…");
-
-        XMLSlideShow pptx = new XMLSlideShow();
-
-        // Set slide dimensions (standard 16:9 widescreen)
-        java.awt.Dimension pgSize = new java.awt.Dimension(
-            (int)(10 * 72), // 10 inches width
-            (int)(7.5 * 72)  // 7.5 inches height
-        );
-        pptx.setPageSize(pgSize);
-
-        try (ParcelFileDescriptor pfd = context.getContentResolver()
-                .openFileDescriptor(pdfUri, "r")) {
-
-            PdfRenderer renderer = new PdfRenderer(pfd);
-            int pageCount = renderer.getPageCount();
-
-            reportProgress(10, "Rendering " + pageCount + " PDF pages…");
-
-            for (int i = 0; i < pageCount; i++) {
-                PdfRenderer.Page page = renderer.openPage(i);
-
-                // Render at high quality
-                int width = (int)(page.getWidth() * 2);
-                int height = (int)(page.getHeight() * 2);
-                Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
-                bitmap.eraseColor(android.graphics.Color.WHITE);
-                page.render(bitmap, null, null, PdfRenderer.Page.RENDER_MODE_FOR_DISPLAY);
-                page.close();
-
-                // Convert bitmap to PNG bytes
-                ByteArrayOutputStream bos = new ByteArrayOutputStream();
-                bitmap.compress(Bitmap.CompressFormat.PNG, 90, bos);
-                byte[] imageBytes = bos.toByteArray();
-                bitmap.recycle();
-
-                // Create slide
-                XSLFSlide slide = pptx.createSlide();
-                slide.getBackground().setFillColor(java.awt.Color.WHITE);
-
-                // Add image to fill entire slide
-                XSLFPictureData pictureData = pptx.addPicture(imageBytes,
-                    PictureData.PictureType.PNG);
-                XSLFPictureShape shape = slide.createPicture(pictureData);
-                shape.setAnchor(new java.awt.Rectangle(0, 0, pgSize.width, pgSize.height));
-
-                // Add slide number label
-                XSLFTextBox textBox = slide.createTextBox();
-                textBox.setAnchor(new java.awt.Rectangle(pgSize.width - 80, pgSize.height - 30, 70, 24));
-                XSLFTextParagraph tp = textBox.addNewTextParagraph();
-                tp.setTextAlign(org.apache.poi.sl.usermodel.TextParagraph.TextAlign.RIGHT);
-                XSLFTextRun tr = tp.addNewTextRun();
-                tr.setText((i + 1) + " / " + pageCount);
-                tr.setFontSize(9.0);
-                tr.setFontColor(java.awt.Color.GRAY);
-
-                renderer.close();
-                renderer = new PdfRenderer(pfd); // Re-open for next page (workaround)
-
-                // Re-open only if more pages
-                int progress = 10 + (int) (((i + 1) / (float) pageCount) * 82);
-                reportProgress(progress, "Converting page " + (i + 1) + " of " + pageCount + "…");
-
-                // Break to avoid re-opening after last page
-                if (i == pageCount - 1) break;
-            }
-            renderer.close();
-        }
+    /**
+     * Turns the on-disk page cache on or off. When off, every conversion starts from scratch.
+     */
+    public void setCacheEnabled(boolean enabled) {
+        engine.setCacheDirectory(enabled ? new File(context.getFilesDir(), "conversion_cache") : null);
+    }
 
-        reportProgress(94, "Saving PowerPoint file…");
-        try (FileOutputStream fos = new FileOutputStream(outputFile)) {
-            pptx.write(fos);
-        }
-        pptx.close();
-        reportProgress(100, "Done!");
+    /**
+     * Heap, in bytes, each parsed copy of the document may use for PDFBox buffers.
+     * Anything beyond it goes to scratch files in the cache dir. Every extraction
+     * worker holds its own copy, so the total is this times the worker count.
+     */
+    public void setPdfBoxHeapLimit(long bytes) {
+        this.pdfBoxHeapLimit = Math.max(0, bytes);
+    }
+
+    /**
+     * Pages to convert, e.g. PageSelection.parse("3-7"); null converts every page.
+     * Applies to every entry point and format. Unselected pages are never parsed
+     * for text or rendered.
+     */
+    public void setPageSelection(PageSelection selection) {
+        engine.setPageSelection(selection);
+    }
+
+    /**
+     * Reads pages that have no text layer (scans) with on-device OCR. On by default.
+     */
+    public void setOcrEnabled(boolean enabled) {
+        this.ocrEnabled = enabled;
+    }
+
+    /**
+     * Time OCR may spend on one document, from its first scanned page; later
+     * scanned pages stay blank.
+     */
+    public void setOcrTimeBudget(long millis) {
+        engine.setOcrTimeBudget(millis);
+    }
+
+    /**
+     * Number of tiles of a scanned page recognized at once.
+     */
+    public void setOcrThreads(int threads) {
+        engine.setOcrThreads(threads);
+    }
+
+    /**
+     * Records per-stage and per-page time, bytes and heap for each conversion; see getLastMetrics.
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        engine.setMetricsEnabled(enabled);
+    }
+
+    /**
+     * Metrics of the last conversion, or null if metrics are off.
+     */
+    public ConversionMetrics getLastMetrics() {
+        return engine.getLastMetrics();
+    }
+
+    /**
+     * Number of pages converted by the last conversion (the selected pages), or 0 if it failed early.
+     */
+    public int getLastPageCount() {
+        return engine.getLastPageCount();
     }
 
     // ─────────────────────────────────────────────
-    // HELPER: Extract text lines with page markers
+    // SINGLE-FORMAT ENTRY POINTS
     // ─────────────────────────────────────────────
-    private List<String> extractTextLines(Uri pdfUri) throws Exception {
-        List<String> lines = new ArrayList<>();
-
-        try {
-            // Use PdfBox for text extraction
-            com.tom_roush.pdfbox.android.PDFBoxResourceLoader.init(context);
-            InputStream is = context.getContentResolver().openInputStream(pdfUri);
-            com.tom_roush.pdfbox.pdmodel.PDDocument pdDoc =
-                com.tom_roush.pdfbox.pdmodel.PDDocument.load(is);
-
-            com.tom_roush.pdfbox.text.PDFTextStripper stripper =
-                new com.tom_roush.pdfbox.text.PDFTextStripper();
-
-            int totalPages = pdDoc.getNumberOfPages();
-            for (int p = 1; p <= totalPages; p++) {
-                stripper.setStartPage(p);
-                stripper.setEndPage(p);
-                String pageText = stripper.getText(pdDoc);
-
-                lines.add("--- Page " + p + " ---");
-                String[] pageLines = pageText.split("\n");
-                for (String l : pageLines) {
-                    lines.add(l);
-                }
-
-                int progress = 5 + (int) ((p / (float) totalPages) * 30);
-                reportProgress(progress, "Extracting text from page " + p + "/" + totalPages + "…");
-            }
-            pdDoc.close();
-            if (is != null) is.close();
-
-        } catch (Exception e) {
-            // Fallback: return a message if text extraction fails
-            lines.add("--- Page 1 ---");
-            lines.add("This PDF may be image-based or encrypted.");
-            lines.add("Text extraction was not possible.");
-            lines.add("For scanned PDFs, please use an OCR tool first.");
-        }
+    public void pdfToExcel(Uri pdfUri, File outputFile) throws Exception {
+        convert(pdfUri, FORMAT_EXCEL, outputFile);
+    }
 
-        return lines;
+    public void pdfToWord(Uri pdfUri, File outputFile) throws Exception {
+        convert(pdfUri, FORMAT_WORD, outputFile);
+    }
+
+    public void pdfToPowerPoint(Uri pdfUri, File outputFile) throws Exception {
+        convert(pdfUri, FORMAT_PPT, outputFile);
+    }
+
+    /**
+     * Converts to the given format: "excel", "word" or "ppt".
+     */
+    public void convert(Uri pdfUri, String format, File outputFile) throws Exception {
+        exportAll(pdfUri, Collections.singletonMap(format, outputFile));
     }
 
     // ─────────────────────────────────────────────
-    // HELPER: Get PDF page count
+    // MULTI-FORMAT EXPORT
     // ─────────────────────────────────────────────
-    private int getPdfPageCount(Uri pdfUri) {
-        try (ParcelFileDescriptor pfd = context.getContentResolver()
-                .openFileDescriptor(pdfUri, "r")) {
-            PdfRenderer renderer = new PdfRenderer(pfd);
-            int count = renderer.getPageCount();
-            renderer.close();
-            return count;
-        } catch (Exception e) {
-            return 1;
+
+    /**
+     * Converts one PDF to several formats in a single pass. Keys are "excel", "word"
+     * or "ppt"; values are the output files. See ConversionEngine.exportAll.
+     */
+    public void exportAll(Uri pdfUri, Map<String, File> targets) throws Exception {
+        try (AndroidPdfSource source =
+                 new AndroidPdfSource(context, pdfUri, pdfBoxHeapLimit, bitmapPool);
+             MlKitTextRecognizer recognizer = ocrEnabled ? new MlKitTextRecognizer() : null) {
+            engine.setTextRecognizer(recognizer);
+            engine.exportAll(source, targets);
+        } finally {
+            engine.setTextRecognizer(null);
         }
     }
 }
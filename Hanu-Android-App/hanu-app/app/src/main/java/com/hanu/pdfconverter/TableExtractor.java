@@ -0,0 +1,69 @@
+package com.hanu.pdfconverter;
+
+import com.tom_roush.pdfbox.pdmodel.PDPage;
+import com.tom_roush.pdfbox.text.PDFTextStripper;
+import com.tom_roush.pdfbox.text.TextPosition;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * TableExtractor - A PDFTextStripper that also lays each page out as a grid of cells.
+ *
+ * While the page text is written as usual, the extent of every word is taken from
+ * its TextPositions and fed to a TableLayout, which clusters the words into
+ * columns. Lines come from PDFBox's own line grouping, which needs
+ * sort-by-position to keep table rows together.
+ */
+class TableExtractor extends PDFTextStripper {
+
+    private final TableLayout layout = new TableLayout();
+
+    TableExtractor() throws IOException {
+        setSortByPosition(true);
+        // A blank line where PDFBox sees a paragraph break (line spacing, indent); see ParagraphReflow
+        setParagraphEnd(getLineSeparator());
+    }
+
+    @Override
+    protected void startPage(PDPage page) throws IOException {
+        layout.reset();
+        super.startPage(page);
+    }
+
+    @Override
+    protected void writeString(String text, List<TextPosition> textPositions) throws IOException {
+        super.writeString(text, textPositions);
+        if (textPositions.isEmpty()) return;
+
+        TextPosition first = textPositions.get(0);
+        TextPosition end = textPositions.get(textPositions.size() - 1);
+        float width = 0;
+        for (TextPosition position : textPositions) {
+            width += position.getWidthDirAdj();
+        }
+        layout.addWord(text.trim(), first.getXDirAdj(), end.getXDirAdj() + end.getWidthDirAdj(),
+            width, textPositions.size());
+    }
+
+    // Lines end at a line separator or, when PDFBox detects a paragraph break, a paragraph end
+
+    @Override
+    protected void writeLineSeparator() throws IOException {
+        super.writeLineSeparator();
+        layout.endLine();
+    }
+
+    @Override
+    protected void writeParagraphEnd() throws IOException {
+        super.writeParagraphEnd();
+        layout.endLine();
+    }
+
+    /**
+     * Cell grid of the page last passed to getText, one array per non-empty line.
+     */
+    List<String[]> rows() {
+        return layout.rows();
+    }
+}
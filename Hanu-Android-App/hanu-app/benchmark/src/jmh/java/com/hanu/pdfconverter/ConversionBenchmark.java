@@ -0,0 +1,73 @@
+package com.hanu.pdfconverter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ConversionBenchmark - Whole conversions through ConversionEngine, the same code
+ * path the app runs, with JvmPdfSource standing in for the Android adapters.
+ * The page cache is off, so every invocation parses, renders and writes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ConversionBenchmark {
+
+    @Param({"TEXT", "TABLE"})
+    public String kind;
+
+    @Param({"50"})
+    public int pages;
+
+    @Param({"excel", "word", "ppt", "all"})
+    public String format;
+
+    private File pdf;
+    private File outDir;
+    private Map<String, File> targets;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        pdf = PdfCorpus.get(PdfCorpus.Kind.valueOf(kind), pages);
+        outDir = Files.createTempDirectory("hanu-conversion").toFile();
+        targets = new LinkedHashMap<>();
+        if ("all".equals(format)) {
+            targets.put(ConversionEngine.FORMAT_EXCEL, new File(outDir, "out.xlsx"));
+            targets.put(ConversionEngine.FORMAT_WORD, new File(outDir, "out.docx"));
+            targets.put(ConversionEngine.FORMAT_PPT, new File(outDir, "out.pptx"));
+        } else {
+            targets.put(format, new File(outDir, "out." + format));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (File file : targets.values()) file.delete();
+        outDir.delete();
+    }
+
+    @Benchmark
+    public int convert(PageCounter counter) throws Exception {
+        ConversionEngine engine = new ConversionEngine();
+        try (JvmPdfSource source = new JvmPdfSource(pdf, ExtractionBenchmark.PDFBOX_HEAP_LIMIT)) {
+            engine.exportAll(source, targets);
+        }
+        counter.pages += pages;
+        return engine.getLastPageCount();
+    }
+}
@@ -0,0 +1,80 @@
+package com.hanu.pdfconverter;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ExtractionBenchmark - Per-page text extraction over a whole document, as one
+ * PageTextStream worker does it: plain PDFTextStripper versus TableExtractor
+ * (text plus TableLayout cell grid).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ExtractionBenchmark {
+
+    // Same default as PdfConverter's PDFBox heap limit
+    static final long PDFBOX_HEAP_LIMIT = 16L * 1024 * 1024;
+
+    @Param({"TEXT", "TABLE", "IMAGE"})
+    public String kind;
+
+    @Param({"1", "10", "100", "1000"})
+    public int pages;
+
+    private File pdf;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        pdf = PdfCorpus.get(PdfCorpus.Kind.valueOf(kind), pages);
+    }
+
+    @Benchmark
+    public long plainText(PageCounter counter) throws IOException {
+        long chars = 0;
+        try (PDDocument doc = PDDocument.load(pdf, MemoryUsageSetting.setupMixed(PDFBOX_HEAP_LIMIT))) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            int pageCount = doc.getNumberOfPages();
+            for (int p = 1; p <= pageCount; p++) {
+                stripper.setStartPage(p);
+                stripper.setEndPage(p);
+                chars += stripper.getText(doc).length();
+            }
+            counter.pages += pageCount;
+        }
+        return chars;
+    }
+
+    @Benchmark
+    public long tableLayout(PageCounter counter) throws IOException {
+        long cells = 0;
+        try (PDDocument doc = PDDocument.load(pdf, MemoryUsageSetting.setupMixed(PDFBOX_HEAP_LIMIT))) {
+            PdfBoxTableExtractor stripper = new PdfBoxTableExtractor();
+            int pageCount = doc.getNumberOfPages();
+            for (int p = 1; p <= pageCount; p++) {
+                stripper.setStartPage(p);
+                stripper.setEndPage(p);
+                stripper.getText(doc);
+                for (String[] row : stripper.rows()) {
+                    cells += row.length;
+                }
+            }
+            counter.pages += pageCount;
+        }
+        return cells;
+    }
+}
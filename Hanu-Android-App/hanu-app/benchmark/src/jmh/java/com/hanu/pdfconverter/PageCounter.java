@@ -0,0 +1,25 @@
+package com.hanu.pdfconverter;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * PageCounter - Reports pages/s next to ops/s; benchmarks add the pages each operation handled.
+ * Writers also add their output size, so outputBytes / pages is the size per page.
+ */
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+@State(Scope.Thread)
+public class PageCounter {
+
+    public long pages;
+    public long outputBytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        pages = 0;
+        outputBytes = 0;
+    }
+}
@@ -0,0 +1,171 @@
+package com.hanu.pdfconverter;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDFont;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * PdfCorpus - Generated PDFs for the benchmarks.
+ *
+ *  - TEXT: dense prose, 52 lines per page
+ *  - TABLE: a bank-statement style table per page (date, description, reference,
+ *    right-aligned debit/credit/balance)
+ *  - IMAGE: a full-width photo-like JPEG and a caption per page
+ *
+ * Content comes from a fixed seed, so every run sees the same bytes. Files are
+ * written once under java.io.tmpdir/hanu-pdf-corpus and reused afterwards.
+ */
+final class PdfCorpus {
+
+    enum Kind { TEXT, TABLE, IMAGE }
+
+    private static final File DIR = new File(System.getProperty("java.io.tmpdir"), "hanu-pdf-corpus");
+
+    private static final String[] WORDS = {
+        "invoice", "balance", "account", "report", "quarter", "revenue", "total", "the",
+        "of", "and", "payment", "transfer", "summary", "annual", "statement", "branch",
+        "customer", "interest", "period", "opening", "closing", "charges", "service", "net"
+    };
+
+    // Distinct page images; pages cycle through them to keep file sizes sane
+    private static final int IMAGE_VARIANTS = 8;
+
+    private PdfCorpus() {
+    }
+
+    static synchronized File get(Kind kind, int pages) throws IOException {
+        File file = new File(DIR, kind.name().toLowerCase(Locale.ROOT) + "-" + pages + ".pdf");
+        if (file.isFile()) return file;
+        if (!DIR.isDirectory() && !DIR.mkdirs()) throw new IOException("Cannot create " + DIR);
+
+        Random random = new Random(pages * 31L + kind.ordinal());
+        File tmp = new File(DIR, file.getName() + ".tmp");
+        try (PDDocument doc = new PDDocument()) {
+            PDImageXObject[] images = new PDImageXObject[kind == Kind.IMAGE ? IMAGE_VARIANTS : 0];
+            for (int i = 0; i < images.length; i++) {
+                images[i] = JPEGFactory.createFromImage(doc, photo(random), 0.85f);
+            }
+            for (int p = 1; p <= pages; p++) {
+                PDPage page = new PDPage(PDRectangle.A4);
+                doc.addPage(page);
+                try (PDPageContentStream out = new PDPageContentStream(doc, page)) {
+                    switch (kind) {
+                        case TEXT:
+                            writeProse(out, random);
+                            break;
+                        case TABLE:
+                            writeStatement(out, random, p);
+                            break;
+                        case IMAGE:
+                            writeImage(out, images[p % images.length], p);
+                            break;
+                    }
+                }
+            }
+            doc.save(tmp);
+        }
+        if (!tmp.renameTo(file)) throw new IOException("Cannot write " + file);
+        return file;
+    }
+
+    private static void writeProse(PDPageContentStream out, Random random) throws IOException {
+        out.beginText();
+        out.setFont(PDType1Font.HELVETICA, 10);
+        out.setLeading(14);
+        out.newLineAtOffset(50, 790);
+        for (int line = 0; line < 52; line++) {
+            StringBuilder sb = new StringBuilder();
+            while (sb.length() < 90) {
+                if (sb.length() > 0) sb.append(' ');
+                sb.append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            out.showText(sb.toString());
+            out.newLine();
+        }
+        out.endText();
+    }
+
+    private static void writeStatement(PDPageContentStream out, Random random, int page)
+            throws IOException {
+        PDFont font = PDType1Font.HELVETICA;
+        float y = 790;
+        cell(out, PDType1Font.HELVETICA_BOLD, "Date", 50, y, false);
+        cell(out, PDType1Font.HELVETICA_BOLD, "Description", 120, y, false);
+        cell(out, PDType1Font.HELVETICA_BOLD, "Ref", 290, y, false);
+        cell(out, PDType1Font.HELVETICA_BOLD, "Debit", 420, y, true);
+        cell(out, PDType1Font.HELVETICA_BOLD, "Credit", 490, y, true);
+        cell(out, PDType1Font.HELVETICA_BOLD, "Balance", 560, y, true);
+
+        Calendar date = new GregorianCalendar(2024, Calendar.JANUARY, 1);
+        date.add(Calendar.DAY_OF_YEAR, page);
+        double balance = 10_000 + random.nextInt(90_000);
+        for (int row = 0; row < 48; row++) {
+            y -= 15;
+            double amount = random.nextInt(500_000) / 100.0;
+            boolean debit = random.nextBoolean();
+            balance += debit ? -amount : amount;
+
+            cell(out, font, String.format(Locale.US, "%02d/%02d/%04d", date.get(Calendar.DAY_OF_MONTH),
+                date.get(Calendar.MONTH) + 1, date.get(Calendar.YEAR)), 50, y, false);
+            cell(out, font, WORDS[random.nextInt(WORDS.length)] + " "
+                + WORDS[random.nextInt(WORDS.length)], 120, y, false);
+            cell(out, font, String.format(Locale.US, "TXN%07d", random.nextInt(1_000_000)), 290, y, false);
+            cell(out, font, String.format(Locale.US, "%,.2f", amount), debit ? 420 : 490, y, true);
+            cell(out, font, String.format(Locale.US, "%,.2f", balance), 560, y, true);
+        }
+    }
+
+    private static void cell(PDPageContentStream out, PDFont font, String text, float x, float y,
+                             boolean alignRight) throws IOException {
+        float size = 9;
+        if (alignRight) x -= font.getStringWidth(text) / 1000 * size;
+        out.beginText();
+        out.setFont(font, size);
+        out.newLineAtOffset(x, y);
+        out.showText(text);
+        out.endText();
+    }
+
+    private static void writeImage(PDPageContentStream out, PDImageXObject image, int page)
+            throws IOException {
+        out.drawImage(image, 50, 300, 495, 495 * image.getHeight() / (float) image.getWidth());
+        out.beginText();
+        out.setFont(PDType1Font.HELVETICA, 10);
+        out.newLineAtOffset(50, 280);
+        out.showText("Figure " + page + ": generated photograph");
+        out.endText();
+    }
+
+    private static java.awt.image.BufferedImage photo(Random random) {
+        int width = 1200;
+        int height = 900;
+        java.awt.image.BufferedImage image =
+            new java.awt.image.BufferedImage(width, height, java.awt.image.BufferedImage.TYPE_INT_RGB);
+        int r0 = random.nextInt(256);
+        int g0 = random.nextInt(256);
+        int b0 = random.nextInt(256);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                // Smooth gradient plus noise, so it compresses like a photo rather than a chart
+                int noise = random.nextInt(24);
+                int r = (r0 + x * 255 / width + noise) & 0xFF;
+                int g = (g0 + y * 255 / height + noise) & 0xFF;
+                int b = (b0 + (x + y) * 127 / (width + height) + noise) & 0xFF;
+                image.setRGB(x, y, (r << 16) | (g << 8) | b);
+            }
+        }
+        return image;
+    }
+}
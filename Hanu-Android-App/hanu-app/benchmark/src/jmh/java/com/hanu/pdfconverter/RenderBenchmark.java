@@ -0,0 +1,75 @@
+package com.hanu.pdfconverter;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RenderBenchmark - Slide rendering with one renderer for the whole document
+ * versus reopening the document for every page (the old per-slide PdfRenderer
+ * workaround). The JVM PDFRenderer stands in for Android's; the gap between the
+ * two is the cost of re-parsing, which grows with page count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RenderBenchmark {
+
+    // Low resolution keeps the raster cost from hiding the parse cost
+    private static final float DPI = 36;
+
+    @Param({"TEXT", "IMAGE"})
+    public String kind;
+
+    @Param({"20", "200"})
+    public int pages;
+
+    private File pdf;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        pdf = PdfCorpus.get(PdfCorpus.Kind.valueOf(kind), pages);
+    }
+
+    @Benchmark
+    public long sharedRenderer(PageCounter counter) throws IOException {
+        long pixels = 0;
+        try (PDDocument doc = load()) {
+            PDFRenderer renderer = new PDFRenderer(doc);
+            for (int p = 0; p < doc.getNumberOfPages(); p++) {
+                pixels += renderer.renderImageWithDPI(p, DPI).getWidth();
+            }
+        }
+        counter.pages += pages;
+        return pixels;
+    }
+
+    @Benchmark
+    public long reopenPerPage(PageCounter counter) throws IOException {
+        long pixels = 0;
+        for (int p = 0; p < pages; p++) {
+            try (PDDocument doc = load()) {
+                pixels += new PDFRenderer(doc).renderImageWithDPI(p, DPI).getWidth();
+            }
+        }
+        counter.pages += pages;
+        return pixels;
+    }
+
+    private PDDocument load() throws IOException {
+        return PDDocument.load(pdf, MemoryUsageSetting.setupMixed(ExtractionBenchmark.PDFBOX_HEAP_LIMIT));
+    }
+}
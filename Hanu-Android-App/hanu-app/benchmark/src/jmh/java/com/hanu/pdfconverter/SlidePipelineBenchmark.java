@@ -0,0 +1,87 @@
+package com.hanu.pdfconverter;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SlidePipelineBenchmark - PowerPoint slide images rendered and encoded one page
+ * after another on the caller's thread (the code before SlideRenderPipeline)
+ * versus SlideRenderPipeline, which overlaps rendering with encoding on a pool.
+ *
+ * Both use PdfBoxPageRenderer and the engine's default AUTO profile, with no
+ * cache; slide assembly is left out so only the stages that moved are timed.
+ * The renderer closes its document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SlidePipelineBenchmark {
+
+    @Param({"TEXT", "IMAGE"})
+    public String kind;
+
+    @Param({"20"})
+    public int pages;
+
+    // The engine's default setSlideQueueDepth
+    @Param({"3"})
+    public int queueDepth;
+
+    private File pdf;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        pdf = PdfCorpus.get(PdfCorpus.Kind.valueOf(kind), pages);
+    }
+
+    @Benchmark
+    public long serial(PageCounter counter) throws IOException {
+        long bytes = 0;
+        try (PdfBoxPageRenderer renderer = new PdfBoxPageRenderer(load())) {
+            for (int p = 0; p < renderer.getPageCount(); p++) {
+                RenderedPage page = renderer.render(p, SlideImageProfile.AUTO);
+                try {
+                    bytes += page.encode(SlideImageProfile.AUTO).data.length;
+                } finally {
+                    page.release();
+                }
+            }
+        }
+        counter.pages += pages;
+        counter.outputBytes += bytes;
+        return bytes;
+    }
+
+    @Benchmark
+    public long pipelined(PageCounter counter) throws Exception {
+        long bytes = 0;
+        try (PdfBoxPageRenderer renderer = new PdfBoxPageRenderer(load());
+             SlideRenderPipeline pipeline = new SlideRenderPipeline(renderer, SlideImageProfile.AUTO,
+                 null, queueDepth, ConversionMetrics.DISABLED, PageSelection.all())) {
+            SlideImageProfile.Encoded image;
+            while ((image = pipeline.next()) != null) {
+                bytes += image.data.length;
+            }
+        }
+        counter.pages += pages;
+        counter.outputBytes += bytes;
+        return bytes;
+    }
+
+    private PDDocument load() throws IOException {
+        return PDDocument.load(pdf, MemoryUsageSetting.setupMixed(ExtractionBenchmark.PDFBOX_HEAP_LIMIT));
+    }
+}
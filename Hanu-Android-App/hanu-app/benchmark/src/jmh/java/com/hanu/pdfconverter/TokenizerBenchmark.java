@@ -0,0 +1,102 @@
+package com.hanu.pdfconverter;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * TokenizerBenchmark - Splitting plain lines into Excel cells, as ExcelWriter.writeRow does.
+ *
+ *  - split: String.split("\t|  {2,}") and trim() per cell, the code before CellTokenizer
+ *  - precompiledSplit: the same regex compiled once, for the regex cost without recompiling
+ *  - tokenizer: CellTokenizer, taking a substring per cell as the writer does
+ * Lines are the trimmed, non-empty extracted lines of the corpus, the writer's input.
+ * Setup checks that every variant yields the same cells. One operation is all lines
+ * of 100 pages.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TokenizerBenchmark {
+
+    private static final String CELL_REGEX = "\t|  {2,}";
+    private static final Pattern CELL_PATTERN = Pattern.compile(CELL_REGEX);
+
+    @Param({"TEXT", "TABLE"})
+    public String kind;
+
+    private List<String> lines;
+    private final CellTokenizer tokenizer = new CellTokenizer();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        File pdf = PdfCorpus.get(PdfCorpus.Kind.valueOf(kind), 100);
+        lines = new ArrayList<>();
+        try (PDDocument doc = PDDocument.load(pdf)) {
+            PdfBoxTableExtractor stripper = new PdfBoxTableExtractor();
+            for (String raw : stripper.getText(doc).split("\n")) {
+                String line = raw.trim();
+                if (!line.isEmpty()) lines.add(line);
+            }
+        }
+
+        for (String line : lines) {
+            String[] expected = line.split(CELL_REGEX);
+            tokenizer.reset(line);
+            int c = 0;
+            while (tokenizer.next()) {
+                String cell = line.substring(tokenizer.start(), tokenizer.end());
+                if (c >= expected.length || !expected[c].trim().equals(cell)) {
+                    throw new IllegalStateException("CellTokenizer differs from split() on: " + line);
+                }
+                c++;
+            }
+            if (c != expected.length) {
+                throw new IllegalStateException("CellTokenizer differs from split() on: " + line);
+            }
+        }
+    }
+
+    @Benchmark
+    public void split(Blackhole blackhole) {
+        for (String line : lines) {
+            for (String cell : line.split(CELL_REGEX)) {
+                blackhole.consume(cell.trim());
+            }
+        }
+    }
+
+    @Benchmark
+    public void precompiledSplit(Blackhole blackhole) {
+        for (String line : lines) {
+            for (String cell : CELL_PATTERN.split(line)) {
+                blackhole.consume(cell.trim());
+            }
+        }
+    }
+
+    @Benchmark
+    public void tokenizer(Blackhole blackhole) {
+        for (String line : lines) {
+            tokenizer.reset(line);
+            while (tokenizer.next()) {
+                blackhole.consume(line.substring(tokenizer.start(), tokenizer.end()));
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.hanu.pdfconverter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WorkerScalingBenchmark - Whole-document extraction with 1/2/4/8 workers.
+ *
+ * Runs the shipping PageTextStream over a JvmPdfSource with the worker count that
+ * ConversionEngine.setExtractionWorkers passes it, without cache or OCR, and reads
+ * every page in order as the writers do. Each worker loads its own copy of the
+ * document. Compare pages/s across worker counts to pick the engine's default,
+ * and watch gc.alloc.rate for the per-worker copies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WorkerScalingBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int workers;
+
+    @Param({"TEXT", "TABLE"})
+    public String kind;
+
+    @Param({"200"})
+    public int pages;
+
+    private File pdf;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        pdf = PdfCorpus.get(PdfCorpus.Kind.valueOf(kind), pages);
+    }
+
+    @Benchmark
+    public long extract(PageCounter counter) throws Exception {
+        long rows = 0;
+        int delivered = 0;
+        try (JvmPdfSource source = new JvmPdfSource(pdf, ExtractionBenchmark.PDFBOX_HEAP_LIMIT);
+             PageTextStream stream = new PageTextStream(source, workers, null, ConversionMetrics.DISABLED,
+                 null, PageSelection.all())) {
+            TextPage page;
+            while ((page = stream.next()) != null) {
+                if (page.rows != null) rows += page.rows.size();
+                delivered++;
+            }
+        }
+        // A failed extraction ends in a single fallback page instead of throwing
+        if (delivered != pages) throw new IllegalStateException("Extracted " + delivered + " of " + pages + " pages");
+        counter.pages += pages;
+        return rows;
+    }
+}
@@ -0,0 +1,112 @@
+package com.hanu.pdfconverter;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WriterBenchmark - The POI writers on pre-extracted pages, so only writing is measured.
+ *
+ *  - excelGrid: ExcelWriter on TableLayout cell grids (typed cells)
+ *  - excelLines: ExcelWriter on plain lines (tab / multi-space splitting)
+ *  - word: WordWriter (XWPFDocument DOM)
+ *  - wordStreaming: StreamingWordWriter (same document, written as it goes)
+ *  - wordStreamingPerLine: StreamingWordWriter without reflow, one paragraph per line
+ * The Word writers get lines with paragraph breaks as the extractor marks them.
+ * Each operation builds and saves a whole workbook or document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WriterBenchmark {
+
+    @Param({"TEXT", "TABLE"})
+    public String kind;
+
+    @Param({"10", "100", "1000"})
+    public int pages;
+
+    private List<TextPage> gridPages;
+    private List<TextPage> linePages;
+    private File output;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        File pdf = PdfCorpus.get(PdfCorpus.Kind.valueOf(kind), pages);
+        gridPages = new ArrayList<>(pages);
+        linePages = new ArrayList<>(pages);
+        try (PDDocument doc = PDDocument.load(pdf)) {
+            PdfBoxTableExtractor stripper = new PdfBoxTableExtractor();
+            int pageCount = doc.getNumberOfPages();
+            for (int p = 1; p <= pageCount; p++) {
+                stripper.setStartPage(p);
+                stripper.setEndPage(p);
+                List<String> lines = Arrays.asList(stripper.getText(doc).split("\n"));
+                gridPages.add(new TextPage(p, pageCount, lines, stripper.rows()));
+                linePages.add(new TextPage(p, pageCount, lines));
+            }
+        }
+        output = File.createTempFile("hanu-bench-", ".out");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        output.delete();
+    }
+
+    @Benchmark
+    public long excelGrid(PageCounter counter) throws IOException {
+        return writeExcel(gridPages, counter);
+    }
+
+    @Benchmark
+    public long excelLines(PageCounter counter) throws IOException {
+        return writeExcel(linePages, counter);
+    }
+
+    @Benchmark
+    public long word(PageCounter counter) throws IOException {
+        return write(new WordWriter(new CancellationToken(), true), linePages, counter);
+    }
+
+    @Benchmark
+    public long wordStreaming(PageCounter counter) throws IOException {
+        return write(new StreamingWordWriter(new CancellationToken(), true), linePages, counter);
+    }
+
+    @Benchmark
+    public long wordStreamingPerLine(PageCounter counter) throws IOException {
+        return write(new StreamingWordWriter(new CancellationToken(), false), linePages, counter);
+    }
+
+    private long writeExcel(List<TextPage> input, PageCounter counter) throws IOException {
+        return write(new ExcelWriter(new CancellationToken()), input, counter);
+    }
+
+    private long write(DocumentWriter writer, List<TextPage> input, PageCounter counter) throws IOException {
+        try (DocumentWriter w = writer) {
+            for (TextPage page : input) {
+                w.addPage(page);
+            }
+            w.save(output);
+        }
+        counter.pages += input.size();
+        counter.outputBytes += output.length();
+        return output.length();
+    }
+}
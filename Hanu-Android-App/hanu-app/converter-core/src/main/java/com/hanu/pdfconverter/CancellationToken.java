@@ -0,0 +1,32 @@
+package com.hanu.pdfconverter;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * CancellationToken - Lets the caller stop a running conversion.
+ *
+ * Passed to ConversionEngine.setCancellationToken. The engine checks the token
+ * between pages, and its writers between rows, and they throw
+ * CancellationException once it is cancelled, or once the conversion thread is
+ * interrupted (e.g. by ExecutorService.shutdownNow). Resources are then released
+ * and the outputs saved so far are discarded; files already at the target paths
+ * are left as they were.
+ */
+public final class CancellationToken {
+
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled || Thread.currentThread().isInterrupted();
+    }
+
+    void throwIfCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException("Conversion cancelled");
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.hanu.pdfconverter;
+
+/**
+ * CellTokenizer - Splits a plain text line into Excel cells without regex or arrays.
+ *
+ * Gives exactly the cells of {@code line.split("\t|  {2,}")} with each cell
+ * trim()med, as ExcelWriter used to compute them:
+ *  - a tab, or a run of three or more spaces, separates two cells; a run of one
+ *    or two spaces stays inside the cell (the regex is a space then two or more)
+ *  - separators next to each other leave an empty cell between them, and a
+ *    separator at the start leaves an empty first cell
+ *  - empty cells after the last non-empty one are dropped, as split() drops
+ *    trailing empty strings; a line of nothing but separators has no cells
+ *  - a line with no separator is one cell, even when it is empty
+ *
+ * One scan over the line, reporting each cell as trimmed bounds into the
+ * CharSequence, so the caller allocates at most the cell strings it keeps.
+ * Reusable: reset() starts a new line. Not thread-safe.
+ */
+final class CellTokenizer {
+
+    // A space run separates cells from this length up
+    private static final int MIN_SPACE_RUN = 3;
+
+    private CharSequence line;
+    // End of the last cell; trailing separators lie beyond it
+    private int limit;
+    // Start of the next raw cell, or -1 once every cell has been returned
+    private int position;
+    private int start;
+    private int end;
+
+    /**
+     * Starts tokenizing a new line.
+     */
+    void reset(CharSequence line) {
+        this.line = line;
+        this.limit = trailingSeparatorsStart(line);
+        this.position = limit == 0 && line.length() > 0 ? -1 : 0;
+        this.start = 0;
+        this.end = 0;
+    }
+
+    /**
+     * Moves to the next cell. Returns false once the line has no more cells.
+     */
+    boolean next() {
+        if (position < 0) return false;
+
+        int i = position;
+        int cellEnd = limit;
+        int nextPosition = -1;
+        while (i < limit) {
+            char c = line.charAt(i);
+            if (c == '\t') {
+                cellEnd = i;
+                nextPosition = i + 1;
+                break;
+            }
+            if (c == ' ') {
+                int run = spaceRun(line, i, limit);
+                if (run >= MIN_SPACE_RUN) {
+                    cellEnd = i;
+                    nextPosition = i + run;
+                    break;
+                }
+                i += run;
+                continue;
+            }
+            i++;
+        }
+
+        // trim(): drop everything up to and including ' ' at both ends
+        int s = position;
+        int e = cellEnd;
+        while (s < e && line.charAt(s) <= ' ') s++;
+        while (e > s && line.charAt(e - 1) <= ' ') e--;
+        start = s;
+        end = e;
+        position = nextPosition;
+        return true;
+    }
+
+    /** Start of the current cell, inclusive. */
+    int start() {
+        return start;
+    }
+
+    /** End of the current cell, exclusive. */
+    int end() {
+        return end;
+    }
+
+    /**
+     * Index where the line's trailing run of separators begins, or its length if it
+     * doesn't end in one. A space run is one separator only as a whole, so runs are
+     * measured back to the character before them.
+     */
+    private static int trailingSeparatorsStart(CharSequence line) {
+        int i = line.length();
+        while (i > 0) {
+            char c = line.charAt(i - 1);
+            if (c == '\t') {
+                i--;
+            } else if (c == ' ') {
+                int runStart = i - 1;
+                while (runStart > 0 && line.charAt(runStart - 1) == ' ') runStart--;
+                if (i - runStart < MIN_SPACE_RUN) break;
+                i = runStart;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static int spaceRun(CharSequence line, int from, int limit) {
+        int i = from;
+        while (i < limit && line.charAt(i) == ' ') i++;
+        return i - from;
+    }
+}
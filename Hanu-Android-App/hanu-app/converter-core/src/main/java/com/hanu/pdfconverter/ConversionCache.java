@@ -0,0 +1,304 @@
+package com.hanu.pdfconverter;
+
+import org.apache.poi.sl.usermodel.PictureData;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ConversionCache - On-disk cache of per-page extraction results.
+ *
+ * Layout (one directory per input document, named by the SHA-256 of its bytes):
+ *   <root>/<hash>/pages                 total page count
+ *   <root>/<hash>/lines/<page>.txt      extracted lines of a page, blank at paragraph breaks
+ *   <root>/<hash>/table/<page>.tsv      cell grid of a page, tab-separated
+ *   <root>/<hash>/<profile>/<page>.png  rendered slide image for one SlideImageProfile
+ *
+ * Converting the same PDF again, to the same or another format, reads pages
+ * from here instead of parsing and rendering them. Whole documents are evicted
+ * least-recently-used first once the cache grows past maxBytes.
+ *
+ * Every ConversionCache on the same root directory shares one lock and one count
+ * of open entries, so with several engines converting at once (BatchConverter)
+ * trim() never deletes a document that a running conversion still has open.
+ * Close an entry when the conversion is done with it.
+ */
+class ConversionCache {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // Shared state of each root directory in use, by canonical path
+    private static final Map<String, Directory> DIRECTORIES = new HashMap<>();
+
+    private final File root;
+    private final long maxBytes;
+    private final Directory directory;
+
+    ConversionCache(File root, long maxBytes) {
+        this.root = root;
+        this.maxBytes = maxBytes;
+        this.directory = directory(root);
+    }
+
+    /**
+     * Returns the cache entry for the document's content hash, creating it if needed.
+     */
+    Entry open(PdfSource source) throws IOException {
+        String hash = source.contentHash();
+        File dir = new File(root, hash);
+        synchronized (directory) {
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Cannot create cache directory " + dir);
+            }
+            // Mark as most recently used
+            dir.setLastModified(System.currentTimeMillis());
+            Integer users = directory.openEntries.get(hash);
+            directory.openEntries.put(hash, users != null ? users + 1 : 1);
+        }
+        return new Entry(dir, directory, hash);
+    }
+
+    /**
+     * Deletes least-recently-used documents until the cache fits in maxBytes,
+     * skipping documents with an open entry.
+     */
+    void trim() {
+        synchronized (directory) {
+            trimLocked();
+        }
+    }
+
+    private void trimLocked() {
+        File[] docs = root.listFiles();
+        if (docs == null) return;
+
+        Arrays.sort(docs, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        long[] sizes = new long[docs.length];
+        long total = 0;
+        for (int i = 0; i < docs.length; i++) {
+            sizes[i] = sizeOf(docs[i]);
+            total += sizes[i];
+        }
+        for (int i = 0; i < docs.length && total > maxBytes; i++) {
+            if (directory.openEntries.containsKey(docs[i].getName())) continue;
+            deleteRecursively(docs[i]);
+            total -= sizes[i];
+        }
+    }
+
+    /**
+     * Lock and open-entry counts shared by every ConversionCache on one root directory.
+     */
+    private static final class Directory {
+        // Document hash -> entries open on it; guarded by this
+        final Map<String, Integer> openEntries = new HashMap<>();
+    }
+
+    private static Directory directory(File root) {
+        String key;
+        try {
+            key = root.getCanonicalPath();
+        } catch (IOException e) {
+            key = root.getAbsolutePath();
+        }
+        synchronized (DIRECTORIES) {
+            Directory directory = DIRECTORIES.get(key);
+            if (directory == null) {
+                directory = new Directory();
+                DIRECTORIES.put(key, directory);
+            }
+            return directory;
+        }
+    }
+
+    static final class Entry implements Closeable {
+        private final File dir;
+        private final File textDir;
+        private final File tableDir;
+        private final Directory directory;
+        private final String hash;
+        private boolean closed;
+
+        Entry(File dir, Directory directory, String hash) {
+            this.dir = dir;
+            this.textDir = new File(dir, "lines");
+            this.tableDir = new File(dir, "table");
+            this.directory = directory;
+            this.hash = hash;
+        }
+
+        /** Lets trim() evict this document again once no other entry has it open. */
+        @Override
+        public void close() {
+            synchronized (directory) {
+                if (closed) return;
+                closed = true;
+                Integer users = directory.openEntries.get(hash);
+                if (users == null || users <= 1) {
+                    directory.openEntries.remove(hash);
+                } else {
+                    directory.openEntries.put(hash, users - 1);
+                }
+            }
+        }
+
+        /** Total page count recorded by an earlier run, or -1 if unknown. */
+        int pageCount() {
+            byte[] data = readFile(new File(dir, "pages"));
+            if (data == null) return -1;
+            try {
+                return Integer.parseInt(new String(data, UTF_8).trim());
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        void putPageCount(int pageCount) {
+            writeFile(new File(dir, "pages"), String.valueOf(pageCount).getBytes(UTF_8));
+        }
+
+        /**
+         * True if the text of every given page is cached, so the PDF need not be parsed at all.
+         * With nonBlank, a page cached with blank text counts as missing: it may predate OCR.
+         */
+        boolean hasText(int[] pages, boolean nonBlank) {
+            for (int p : pages) {
+                File text = new File(textDir, p + ".txt");
+                if (!text.isFile()) return false;
+                if (!new File(tableDir, p + ".tsv").isFile()) return false;
+                if (nonBlank && isBlank(readFile(text))) return false;
+            }
+            return true;
+        }
+
+        List<String> getText(int page) {
+            byte[] data = readFile(new File(textDir, page + ".txt"));
+            if (data == null) return null;
+            return Arrays.asList(new String(data, UTF_8).split("\n"));
+        }
+
+        void putText(int page, List<String> lines) {
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < lines.size(); i++) {
+                if (i > 0) sb.append('\n');
+                sb.append(lines.get(i));
+            }
+            writeFile(new File(textDir, page + ".txt"), sb.toString().getBytes(UTF_8));
+        }
+
+        List<String[]> getTable(int page) {
+            byte[] data = readFile(new File(tableDir, page + ".tsv"));
+            if (data == null) return null;
+            List<String[]> rows = new ArrayList<>();
+            if (data.length == 0) return rows;
+            for (String line : new String(data, UTF_8).split("\n", -1)) {
+                rows.add(line.split("\t", -1));
+            }
+            return rows;
+        }
+
+        void putTable(int page, List<String[]> rows) {
+            StringBuilder sb = new StringBuilder();
+            for (int r = 0; r < rows.size(); r++) {
+                if (r > 0) sb.append('\n');
+                String[] cells = rows.get(r);
+                for (int c = 0; c < cells.length; c++) {
+                    if (c > 0) sb.append('\t');
+                    // Cells never span lines or columns in the file format
+                    sb.append(cells[c].replace('\t', ' ').replace('\n', ' '));
+                }
+            }
+            writeFile(new File(tableDir, page + ".tsv"), sb.toString().getBytes(UTF_8));
+        }
+
+        SlideImageProfile.Encoded getImage(SlideImageProfile profile, int page) {
+            File imageDir = new File(dir, profile.cacheKey());
+            byte[] png = readFile(new File(imageDir, page + ".png"));
+            if (png != null) return new SlideImageProfile.Encoded(png, PictureData.PictureType.PNG);
+            byte[] jpeg = readFile(new File(imageDir, page + ".jpg"));
+            if (jpeg != null) return new SlideImageProfile.Encoded(jpeg, PictureData.PictureType.JPEG);
+            return null;
+        }
+
+        void putImage(SlideImageProfile profile, int page, SlideImageProfile.Encoded image) {
+            String ext = image.type == PictureData.PictureType.JPEG ? ".jpg" : ".png";
+            writeFile(new File(new File(dir, profile.cacheKey()), page + ext), image.data);
+        }
+    }
+
+    // ─────────────────────────────────────────────
+    // File helpers
+    // ─────────────────────────────────────────────
+
+    /** True for a missing file's null or text of nothing but whitespace and line breaks. */
+    private static boolean isBlank(byte[] data) {
+        if (data == null) return true;
+        for (byte b : data) {
+            // UTF-8 multi-byte sequences are negative, so they count as text
+            if (b < 0 || b > ' ') return false;
+        }
+        return true;
+    }
+
+    private static byte[] readFile(File file) {
+        if (!file.isFile()) return null;
+        try (InputStream is = new FileInputStream(file)) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream((int) file.length());
+            byte[] buffer = new byte[16 * 1024];
+            int n;
+            while ((n = is.read(buffer)) != -1) {
+                bos.write(buffer, 0, n);
+            }
+            return bos.toByteArray();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes to a temp file and renames it, so readers never see a half-written page.
+     * Cache writes are best-effort; failures just mean a miss next time.
+     */
+    private static void writeFile(File file, byte[] data) {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory()) parent.mkdirs();
+        File tmp = new File(parent, file.getName() + "." + Thread.currentThread().getId() + ".tmp");
+        try (OutputStream os = new FileOutputStream(tmp)) {
+            os.write(data);
+        } catch (IOException e) {
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(file)) tmp.delete();
+    }
+
+    private static long sizeOf(File file) {
+        if (file.isFile()) return file.length();
+        long total = 0;
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) total += sizeOf(child);
+        }
+        return total;
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) deleteRecursively(child);
+        }
+        file.delete();
+    }
+}
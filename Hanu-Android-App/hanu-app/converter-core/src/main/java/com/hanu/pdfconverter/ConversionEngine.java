@@ -0,0 +1,407 @@
+package com.hanu.pdfconverter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ConversionEngine - Platform-independent core of PDF to Excel, Word and PowerPoint conversion.
+ *
+ * Strategy:
+ *  - The PDF comes in through a PdfSource, which supplies per-worker text extractors
+ *    and a page renderer for the platform (Android app, or converter-jvm on a plain JVM)
+ *  - Text is extracted page by page on several workers (see PageTextStream) so
+ *    writing overlaps extraction
+ *  - For Excel: cell grids become rows/cells (see ExcelWriter), streamed through
+ *    SXSSF so only a small window of rows stays in memory
+ *  - For Word: reflows lines into styled paragraphs with page headings and breaks, streamed
+ *    straight to the .docx XML (see StreamingWordWriter) or built as a DOM (see WordWriter)
+ *  - For PPT: each PDF page becomes a slide with the rendered image (see SlideWriter);
+ *    rendering, image encoding and slide assembly overlap (see SlideRenderPipeline)
+ *  - Any set of formats is produced in one pass (see exportAll): text is extracted
+ *    once and pages are rendered once, then fanned out to every writer
+ *  - A PageSelection limits every format to chosen pages; the rest are never touched
+ *  - Pages without a text layer are read by OCR when a TextRecognizer is set (see OcrStage)
+ *  - Per-page text and slide images are cached on disk by content hash (see ConversionCache),
+ *    so converting the same PDF again skips straight to writing
+ *  - Optionally, time, bytes and heap are recorded per stage and page (see ConversionMetrics)
+ *
+ * One engine runs one conversion at a time.
+ */
+public class ConversionEngine {
+
+    public interface ProgressCallback {
+        void onProgress(int progress, String status);
+    }
+
+    public static final String FORMAT_EXCEL = "excel";
+    public static final String FORMAT_WORD = "word";
+    public static final String FORMAT_PPT = "ppt";
+
+    // Extracted text and slide images kept on disk for repeat conversions
+    private static final long CACHE_MAX_BYTES = 200L * 1024 * 1024;
+
+    // Per-page status line, formatted only when the dispatcher actually delivers it
+    private static final ProgressDispatcher.StatusFormat PAGE_STATUS =
+        (page, totalPages, tenthsPerSec) -> "Converting page " + page + " of " + totalPages
+            + " (" + (tenthsPerSec / 10) + "." + (tenthsPerSec % 10) + " pages/s)…";
+
+    private ProgressDispatcher progress = new ProgressDispatcher(null);
+    private CancellationToken cancellation = new CancellationToken();
+    private int extractionWorkers = defaultExtractionWorkers();
+    private int slideQueueDepth = 3;
+    private boolean streamingWord = true;
+    private boolean wordReflow = true;
+    private SlideImageProfile slideImageProfile = SlideImageProfile.AUTO;
+    private ConversionCache cache;
+    private TextRecognizer textRecognizer;
+    private long ocrTimeBudgetMillis = 60_000L;
+    private int ocrThreads = 2;
+    private PageSelection pageSelection = PageSelection.all();
+    private boolean metricsEnabled;
+    private ConversionMetrics.CpuClock cpuClock;
+    private ConversionMetrics lastMetrics;
+    private int lastPageCount;
+
+    public void setProgressCallback(ProgressCallback callback) {
+        this.progress = new ProgressDispatcher(callback);
+    }
+
+    /**
+     * Token checked between pages and rows; cancelling it stops the conversion in progress.
+     */
+    public void setCancellationToken(CancellationToken token) {
+        this.cancellation = token != null ? token : new CancellationToken();
+    }
+
+    /**
+     * Number of threads used to extract page text. Each worker holds its own copy of
+     * the parsed document, so more workers trade memory for speed on long PDFs.
+     */
+    public void setExtractionWorkers(int workers) {
+        this.extractionWorkers = Math.max(1, workers);
+    }
+
+    /**
+     * Number of PowerPoint pages that may be rendered ahead of slide assembly.
+     * Each one holds a full-page image or its encoded form until it is added.
+     */
+    public void setSlideQueueDepth(int depth) {
+        this.slideQueueDepth = Math.max(1, depth);
+    }
+
+    /**
+     * Writes Word output paragraph by paragraph to a temp file instead of building
+     * the whole document in memory. On by default; the output is the same either way.
+     */
+    public void setStreamingWord(boolean streaming) {
+        this.streamingWord = streaming;
+    }
+
+    /**
+     * Joins wrapped lines into paragraphs in Word output (see ParagraphReflow). On by
+     * default; when off, every extracted line becomes its own paragraph.
+     */
+    public void setWordReflow(boolean reflow) {
+        this.wordReflow = reflow;
+    }
+
+    /**
+     * Resolution and image format used for PowerPoint slide images.
+     */
+    public void setSlideImageProfile(SlideImageProfile profile) {
+        this.slideImageProfile = profile != null ? profile : SlideImageProfile.AUTO;
+    }
+
+    /**
+     * Pages to convert, in every output format; null selects all of them. Pages
+     * outside the selection are never stripped, recognized or rendered. A selection
+     * with no page in the document fails the conversion.
+     */
+    public void setPageSelection(PageSelection selection) {
+        this.pageSelection = selection != null ? selection : PageSelection.all();
+    }
+
+    /**
+     * Recognizer used to read pages that have no text layer (scans), or null to
+     * leave such pages blank. Pages with text never reach it. The caller keeps
+     * ownership and closes it.
+     */
+    public void setTextRecognizer(TextRecognizer recognizer) {
+        this.textRecognizer = recognizer;
+    }
+
+    /**
+     * Time OCR may spend on one document, counted from the first page sent to OCR;
+     * blank pages left once it runs out stay blank.
+     */
+    public void setOcrTimeBudget(long millis) {
+        this.ocrTimeBudgetMillis = Math.max(0, millis);
+    }
+
+    /**
+     * Number of tiles of a page recognized at once.
+     */
+    public void setOcrThreads(int threads) {
+        this.ocrThreads = Math.max(1, threads);
+    }
+
+    /**
+     * Directory for the on-disk page cache, or null to convert every document from scratch.
+     */
+    public void setCacheDirectory(File dir) {
+        this.cache = dir != null ? new ConversionCache(dir, CACHE_MAX_BYTES) : null;
+    }
+
+    /**
+     * Records a ConversionMetrics report for each conversion (see getLastMetrics).
+     * Off by default; when on, each page stage costs two clock reads.
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        this.metricsEnabled = enabled;
+    }
+
+    /**
+     * Thread CPU clock for the metrics, for platforms without java.lang.management.
+     * Null uses the JVM's.
+     */
+    public void setCpuClock(ConversionMetrics.CpuClock clock) {
+        this.cpuClock = clock;
+    }
+
+    private static int defaultExtractionWorkers() {
+        return Math.max(1, Math.min(Runtime.getRuntime().availableProcessors() / 2, 4));
+    }
+
+    /**
+     * Number of pages converted by the last conversion (the selected pages), or 0 if it failed early.
+     */
+    public int getLastPageCount() {
+        return lastPageCount;
+    }
+
+    /**
+     * Metrics of the last conversion, including a failed one, or null if metrics are off.
+     */
+    public ConversionMetrics getLastMetrics() {
+        return lastMetrics;
+    }
+
+    private ConversionCache.Entry openCache(PdfSource source, ConversionMetrics metrics) {
+        if (cache == null) return null;
+        ConversionMetrics.Section section = metrics.begin(ConversionMetrics.Stage.LOAD, 0);
+        try {
+            return cache.open(source);
+        } catch (Exception e) {
+            return null; // Convert without the cache
+        } finally {
+            section.end();
+        }
+    }
+
+    private PageRenderer openRenderer(PdfSource source, ConversionMetrics metrics) throws Exception {
+        ConversionMetrics.Section section = metrics.begin(ConversionMetrics.Stage.LOAD, 0);
+        PageRenderer renderer = source.openRenderer();
+        section.end();
+        return renderer;
+    }
+
+    private void save(DocumentWriter writer, File outputFile, ConversionMetrics metrics) throws IOException {
+        ConversionMetrics.Section section = metrics.begin(ConversionMetrics.Stage.WRITE, 0);
+        writer.save(outputFile);
+        section.end(0, outputFile.length());
+    }
+
+    /**
+     * Temp file an output is saved to before it replaces the target, registered in
+     * staged so a failed run deletes it.
+     */
+    private static File stage(Map<String, File> targets, String format, Map<String, File> staged) {
+        File target = targets.get(format).getAbsoluteFile();
+        File part = new File(target.getParentFile(), target.getName() + ".part");
+        staged.put(format, part);
+        return part;
+    }
+
+    /**
+     * Moves every staged output over its target, once all of them are saved.
+     */
+    private static void publish(Map<String, File> staged, Map<String, File> targets) throws IOException {
+        for (Map.Entry<String, File> entry : staged.entrySet()) {
+            File part = entry.getValue();
+            File target = targets.get(entry.getKey());
+            // renameTo replaces the target on Android; elsewhere it may have to go first
+            if (!part.renameTo(target) && !(target.delete() && part.renameTo(target))) {
+                throw new IOException("Cannot write " + target);
+            }
+        }
+    }
+
+    private DocumentWriter newWordWriter() throws IOException {
+        return streamingWord
+            ? new StreamingWordWriter(cancellation, wordReflow) : new WordWriter(cancellation, wordReflow);
+    }
+
+    private void trimCache() {
+        if (cache != null) cache.trim();
+    }
+
+    private static void deletePartialOutput(File part) {
+        if (part.exists() && !part.delete()) {
+            part.deleteOnExit();
+        }
+    }
+
+    private void reportProgress(int percent, String status) {
+        progress.report(percent, status);
+    }
+
+    // ─────────────────────────────────────────────
+    // MULTI-FORMAT EXPORT
+    // ─────────────────────────────────────────────
+
+    /**
+     * Converts one PDF to several formats in a single pass. Keys are "excel", "word"
+     * or "ppt"; values are the output files. Text is extracted once for every text
+     * target and pages are rendered once for the slide deck, so asking for all three
+     * costs little more than the slowest one alone. The caller closes the source.
+     *
+     * Each output is saved next to its target as "name.part", and the targets are
+     * replaced only after every output is saved. A failed run deletes its .part
+     * files and leaves existing files at the target paths untouched.
+     */
+    public void exportAll(PdfSource source, Map<String, File> targets) throws Exception {
+        for (String format : targets.keySet()) {
+            if (!FORMAT_EXCEL.equals(format) && !FORMAT_WORD.equals(format) && !FORMAT_PPT.equals(format)) {
+                throw new IllegalArgumentException("Unknown format: " + format);
+            }
+        }
+        lastPageCount = 0;
+        ConversionMetrics metrics = !metricsEnabled ? ConversionMetrics.DISABLED
+            : cpuClock != null ? new ConversionMetrics(cpuClock) : new ConversionMetrics();
+        lastMetrics = metricsEnabled ? metrics : null;
+        Map<String, File> staged = new LinkedHashMap<>();
+        try {
+            runExport(source, targets, staged, metrics);
+        } catch (Exception e) {
+            // Only this run's temp files; targets are replaced only once every output is saved
+            for (File part : staged.values()) {
+                deletePartialOutput(part);
+            }
+            throw e;
+        } finally {
+            metrics.addBytes(ConversionMetrics.Stage.LOAD, source.length(), 0);
+            metrics.finish();
+        }
+    }
+
+    private void runExport(PdfSource source, Map<String, File> targets, Map<String, File> staged,
+                           ConversionMetrics metrics) throws Exception {
+        reportProgress(5, "Opening PDF…");
+        cancellation.throwIfCancelled();
+
+        boolean wantExcel = targets.containsKey(FORMAT_EXCEL);
+        boolean wantWord = targets.containsKey(FORMAT_WORD);
+        boolean wantSlides = targets.containsKey(FORMAT_PPT);
+
+        // Every stage below is optional; try-with-resources skips the null ones
+        try (// Closed last; until then no other engine's trim() evicts this document
+             ConversionCache.Entry cacheEntry = openCache(source, metrics);
+             ExcelWriter excel = wantExcel ? new ExcelWriter(cancellation) : null;
+             DocumentWriter word = wantWord ? newWordWriter() : null;
+             SlideWriter slides = wantSlides ? new SlideWriter() : null;
+             // Declared before the text stream so it closes after the workers using it stop
+             OcrStage ocr = (wantExcel || wantWord) && textRecognizer != null
+                 ? new OcrStage(source, textRecognizer, ocrThreads, ocrTimeBudgetMillis, metrics) : null;
+             PageTextStream pages = wantExcel || wantWord
+                 ? new PageTextStream(source, extractionWorkers, cacheEntry, metrics, ocr, pageSelection) : null;
+             // One renderer for the whole document, driven by the pipeline's render thread
+             PageRenderer renderer = wantSlides ? openRenderer(source, metrics) : null;
+             SlideRenderPipeline pipeline = renderer != null
+                 ? new SlideRenderPipeline(renderer, slideImageProfile, cacheEntry, slideQueueDepth, metrics,
+                     pageSelection)
+                 : null) {
+
+            reportProgress(10, "Converting pages…");
+
+            long startNanos = System.nanoTime();
+            int[] slidePages = pipeline != null ? pipeline.getPages() : new int[0];
+            int slideIndex = 0;
+            int textIndex = 0;
+            int textCount = 0;
+            boolean textDone = pages == null;
+            boolean slidesDone = pipeline == null;
+
+            // Text pages and slide images advance together, one selected PDF page per step
+            while (!textDone || !slidesDone) {
+                cancellation.throwIfCancelled();
+                boolean advanced = false;
+
+                if (!textDone) {
+                    TextPage page = pages.next();
+                    if (page == null) {
+                        textDone = true;
+                    } else {
+                        ConversionMetrics.Section build = metrics.begin(ConversionMetrics.Stage.BUILD, page.number);
+                        if (excel != null) excel.addPage(page);
+                        if (word != null) word.addPage(page);
+                        build.end();
+                        textIndex++;
+                        textCount = pageSelection.size(page.totalPages);
+                        advanced = true;
+                    }
+                }
+                if (!slidesDone) {
+                    SlideImageProfile.Encoded image = pipeline.next();
+                    if (image == null) {
+                        slidesDone = true;
+                    } else {
+                        int pageNumber = slidePages[slideIndex++];
+                        ConversionMetrics.Section build = metrics.begin(ConversionMetrics.Stage.BUILD, pageNumber);
+                        slides.addSlide(image, pageNumber, pipeline.getPageCount());
+                        build.end();
+                        advanced = true;
+                    }
+                }
+
+                if (advanced) {
+                    // Position among the selected pages, not the PDF page number
+                    int done = Math.max(textIndex, slideIndex);
+                    int total = Math.max(done, Math.max(textCount, slidePages.length));
+                    lastPageCount = total;
+                    long elapsedMs = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000L);
+                    int percent = 10 + (int) ((done / (float) total) * 80);
+                    progress.update(Math.min(percent, 90), PAGE_STATUS, done, total,
+                        (int) (done * 10_000L / elapsedMs));
+                }
+            }
+
+            if (excel != null) {
+                cancellation.throwIfCancelled();
+                reportProgress(91, "Saving Excel file…");
+                save(excel, stage(targets, FORMAT_EXCEL, staged), metrics);
+            }
+            if (word != null) {
+                cancellation.throwIfCancelled();
+                reportProgress(94, "Saving Word document…");
+                save(word, stage(targets, FORMAT_WORD, staged), metrics);
+            }
+            if (slides != null) {
+                cancellation.throwIfCancelled();
+                String stats = renderer.stats();
+                reportProgress(97, stats != null
+                    ? "Saving PowerPoint file… (" + stats + ")" : "Saving PowerPoint file…");
+                File outputFile = stage(targets, FORMAT_PPT, staged);
+                ConversionMetrics.Section section = metrics.begin(ConversionMetrics.Stage.WRITE, 0);
+                slides.save(outputFile);
+                section.end(0, outputFile.length());
+            }
+        }
+
+        cancellation.throwIfCancelled();
+        publish(staged, targets);
+        trimCache();
+        reportProgress(100, "Done!");
+    }
+}
@@ -0,0 +1,331 @@
+package com.hanu.pdfconverter;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * ConversionMetrics - Where one conversion spent its time, bytes and memory, per stage and per page.
+ *
+ * Stages:
+ *  - LOAD: opening the PDF (copying and hashing the source, parsing it for each
+ *    extraction worker, opening the renderer)
+ *  - EXTRACT: text and cell grids, on the extraction workers
+ *  - OCR: rendering and recognizing pages without a text layer (see OcrStage)
+ *  - RENDER: rasterizing slide pages, on the render thread
+ *  - ENCODE: compressing slide images, on the encoder pool
+ *  - BUILD: adding pages to the POI documents
+ *  - WRITE: saving the output files
+ *
+ * Each measured section records wall time, CPU time of the thread that ran it,
+ * bytes read and written where the stage knows them, and the heap in use when it
+ * ended. Peak heap is the largest of those samples, so a spike inside a section
+ * can be missed. Sections on different threads overlap, so stage wall times may
+ * add up to more than the elapsed time.
+ *
+ * Thread-safe. The report is available as text (toString) or JSON (toJson).
+ */
+public final class ConversionMetrics {
+
+    public enum Stage { LOAD, EXTRACT, OCR, RENDER, ENCODE, BUILD, WRITE }
+
+    /** CPU time of the calling thread in nanoseconds, or -1 if the platform can't tell. */
+    public interface CpuClock {
+        long threadCpuNanos();
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+
+    /** Records nothing; used when metrics are off. */
+    static final ConversionMetrics DISABLED = new ConversionMetrics(() -> -1, false);
+
+    private static final Section NO_SECTION = new Section(null, Stage.LOAD, 0, 0, 0);
+
+    public static final class StageStats {
+        public final Stage stage;
+        public final int sections;
+        public final long wallNanos;
+        public final long cpuNanos; // -1 when CPU time is unavailable
+        public final long bytesRead;
+        public final long bytesWritten;
+        public final long peakHeapBytes;
+
+        StageStats(Stage stage, int sections, long wallNanos, long cpuNanos,
+                   long bytesRead, long bytesWritten, long peakHeapBytes) {
+            this.stage = stage;
+            this.sections = sections;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.bytesRead = bytesRead;
+            this.bytesWritten = bytesWritten;
+            this.peakHeapBytes = peakHeapBytes;
+        }
+    }
+
+    public static final class PageStats {
+        public final int page;
+        public final long peakHeapBytes;
+        private final long[] wallNanos;
+        private final long[] cpuNanos;
+
+        PageStats(int page, long peakHeapBytes, long[] wallNanos, long[] cpuNanos) {
+            this.page = page;
+            this.peakHeapBytes = peakHeapBytes;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+        }
+
+        public long wallNanos(Stage stage) {
+            return wallNanos[stage.ordinal()];
+        }
+
+        /** -1 when CPU time is unavailable. */
+        public long cpuNanos(Stage stage) {
+            return cpuNanos[stage.ordinal()];
+        }
+    }
+
+    /**
+     * An open measurement; end() it on the thread that began it.
+     */
+    static final class Section {
+        private final ConversionMetrics metrics;
+        private final Stage stage;
+        private final int page;
+        private final long startNanos;
+        private final long startCpuNanos;
+
+        Section(ConversionMetrics metrics, Stage stage, int page, long startNanos, long startCpuNanos) {
+            this.metrics = metrics;
+            this.stage = stage;
+            this.page = page;
+            this.startNanos = startNanos;
+            this.startCpuNanos = startCpuNanos;
+        }
+
+        void end() {
+            end(0, 0);
+        }
+
+        void end(long bytesRead, long bytesWritten) {
+            if (metrics == null) return;
+            long wall = System.nanoTime() - startNanos;
+            long cpu = startCpuNanos >= 0 ? metrics.cpuClock.threadCpuNanos() - startCpuNanos : -1;
+            metrics.record(stage, page, wall, cpu, bytesRead, bytesWritten);
+        }
+    }
+
+    private final CpuClock cpuClock;
+    private final boolean enabled;
+    private final long startNanos = System.nanoTime();
+
+    // All fields below are guarded by this; stage arrays are indexed by Stage.ordinal()
+    private final int[] sections = new int[STAGES.length];
+    private final long[] wallNanos = new long[STAGES.length];
+    private final long[] cpuNanos = new long[STAGES.length];
+    private final long[] bytesRead = new long[STAGES.length];
+    private final long[] bytesWritten = new long[STAGES.length];
+    private final long[] peakHeap = new long[STAGES.length];
+    private final Map<Integer, long[][]> pages = new TreeMap<>(); // page → {wall[], cpu[], {peakHeap}}
+    private boolean cpuKnown = true;
+    private long elapsedNanos = -1;
+
+    /**
+     * Metrics using the JVM's thread CPU clock where it has one.
+     */
+    public ConversionMetrics() {
+        this(defaultCpuClock());
+    }
+
+    public ConversionMetrics(CpuClock cpuClock) {
+        this(cpuClock, true);
+    }
+
+    private ConversionMetrics(CpuClock cpuClock, boolean enabled) {
+        this.cpuClock = cpuClock;
+        this.enabled = enabled;
+    }
+
+    /**
+     * ThreadMXBean's clock on a JVM; Android has no java.lang.management, so there
+     * the app passes its own clock and this falls back to "unknown".
+     */
+    private static CpuClock defaultCpuClock() {
+        try {
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads.isCurrentThreadCpuTimeSupported()) {
+                return threads::getCurrentThreadCpuTime;
+            }
+        } catch (Throwable ignored) {
+        }
+        return () -> -1;
+    }
+
+    /**
+     * Starts measuring a section of the given stage. Page 0 means the whole document.
+     */
+    Section begin(Stage stage, int page) {
+        if (!enabled) return NO_SECTION;
+        return new Section(this, stage, page, System.nanoTime(), cpuClock.threadCpuNanos());
+    }
+
+    /**
+     * Adds bytes measured outside a section, e.g. the source size once it is known.
+     */
+    synchronized void addBytes(Stage stage, long read, long written) {
+        if (!enabled) return;
+        bytesRead[stage.ordinal()] += Math.max(0, read);
+        bytesWritten[stage.ordinal()] += Math.max(0, written);
+    }
+
+    synchronized void finish() {
+        if (enabled && elapsedNanos < 0) elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    private synchronized void record(Stage stage, int page, long wall, long cpu,
+                                     long read, long written) {
+        Runtime runtime = Runtime.getRuntime();
+        long heap = runtime.totalMemory() - runtime.freeMemory();
+        int s = stage.ordinal();
+        sections[s]++;
+        wallNanos[s] += wall;
+        if (cpu >= 0) cpuNanos[s] += cpu;
+        else cpuKnown = false;
+        bytesRead[s] += read;
+        bytesWritten[s] += written;
+        peakHeap[s] = Math.max(peakHeap[s], heap);
+
+        if (page > 0) {
+            long[][] perPage = pages.get(page);
+            if (perPage == null) {
+                perPage = new long[][] { new long[STAGES.length], new long[STAGES.length], new long[1] };
+                pages.put(page, perPage);
+            }
+            perPage[0][s] += wall;
+            perPage[1][s] += Math.max(0, cpu);
+            perPage[2][0] = Math.max(perPage[2][0], heap);
+        }
+    }
+
+    // ─────────────────────────────────────────────
+    // REPORT
+    // ─────────────────────────────────────────────
+
+    /**
+     * Wall time from the start of the conversion to its end, or so far if it is still running.
+     */
+    public synchronized long getElapsedNanos() {
+        return elapsedNanos >= 0 ? elapsedNanos : System.nanoTime() - startNanos;
+    }
+
+    public synchronized long getPeakHeapBytes() {
+        long peak = 0;
+        for (long heap : peakHeap) peak = Math.max(peak, heap);
+        return peak;
+    }
+
+    public synchronized StageStats getStage(Stage stage) {
+        int s = stage.ordinal();
+        return new StageStats(stage, sections[s], wallNanos[s], cpuKnown ? cpuNanos[s] : -1,
+            bytesRead[s], bytesWritten[s], peakHeap[s]);
+    }
+
+    /**
+     * Per-page figures in page order, for pages that had at least one measured section.
+     */
+    public synchronized List<PageStats> getPages() {
+        List<PageStats> result = new ArrayList<>(pages.size());
+        for (Map.Entry<Integer, long[][]> e : pages.entrySet()) {
+            long[][] perPage = e.getValue();
+            long[] cpu = perPage[1].clone();
+            if (!cpuKnown) Arrays.fill(cpu, -1);
+            result.add(new PageStats(e.getKey(), perPage[2][0], perPage[0].clone(), cpu));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * The full report, stages and pages, as a JSON object. Times are in nanoseconds.
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"elapsedNanos\":").append(getElapsedNanos())
+            .append(",\"peakHeapBytes\":").append(getPeakHeapBytes())
+            .append(",\"stages\":[");
+        for (Stage stage : STAGES) {
+            StageStats stats = getStage(stage);
+            if (stage.ordinal() > 0) json.append(',');
+            json.append("{\"stage\":\"").append(stage.name())
+                .append("\",\"sections\":").append(stats.sections)
+                .append(",\"wallNanos\":").append(stats.wallNanos)
+                .append(",\"cpuNanos\":").append(stats.cpuNanos)
+                .append(",\"bytesRead\":").append(stats.bytesRead)
+                .append(",\"bytesWritten\":").append(stats.bytesWritten)
+                .append(",\"peakHeapBytes\":").append(stats.peakHeapBytes)
+                .append('}');
+        }
+        json.append("],\"pages\":[");
+        boolean first = true;
+        for (PageStats page : getPages()) {
+            if (!first) json.append(',');
+            first = false;
+            json.append("{\"page\":").append(page.page)
+                .append(",\"peakHeapBytes\":").append(page.peakHeapBytes);
+            appendStageTimes(json, ",\"wallNanos\":{", page.wallNanos);
+            appendStageTimes(json, ",\"cpuNanos\":{", page.cpuNanos);
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private static void appendStageTimes(StringBuilder json, String key, long[] nanos) {
+        json.append(key);
+        boolean first = true;
+        for (Stage stage : STAGES) {
+            long value = nanos[stage.ordinal()];
+            if (value == 0) continue; // Stage never ran for this page
+            if (!first) json.append(',');
+            first = false;
+            json.append('"').append(stage.name()).append("\":").append(value);
+        }
+        json.append('}');
+    }
+
+    /**
+     * One line per stage that ran, then the totals, e.g.
+     * "EXTRACT 812 ms · CPU 1.6 s · 40 sections · heap 38.2 MB".
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Stage stage : STAGES) {
+            StageStats stats = getStage(stage);
+            if (stats.sections == 0 && stats.bytesRead == 0 && stats.bytesWritten == 0) continue;
+            text.append(stage.name()).append(' ').append(formatNanos(stats.wallNanos));
+            if (stats.cpuNanos >= 0) text.append(" · CPU ").append(formatNanos(stats.cpuNanos));
+            text.append(" · ").append(stats.sections).append(stats.sections == 1 ? " section" : " sections");
+            if (stats.bytesRead > 0) text.append(" · read ").append(formatBytes(stats.bytesRead));
+            if (stats.bytesWritten > 0) text.append(" · wrote ").append(formatBytes(stats.bytesWritten));
+            text.append(" · heap ").append(formatBytes(stats.peakHeapBytes)).append('\n');
+        }
+        return text.append("Total ").append(formatNanos(getElapsedNanos()))
+            .append(" · peak heap ").append(formatBytes(getPeakHeapBytes())).toString();
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000_000_000L) return (nanos / 1_000_000L) + " ms";
+        return String.format(Locale.US, "%.1f s", nanos / 1e9);
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + " B";
+        if (bytes < 1024 * 1024) return String.format(Locale.US, "%.1f KB", bytes / 1024.0);
+        return String.format(Locale.US, "%.1f MB", bytes / (1024.0 * 1024));
+    }
+}
@@ -0,0 +1,17 @@
+package com.hanu.pdfconverter;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * DocumentWriter - A text output that takes extracted pages in order and is saved once.
+ *
+ * close() releases whatever the writer holds (DOM, temp files) whether or not it was saved.
+ */
+interface DocumentWriter extends Closeable {
+
+    void addPage(TextPage page) throws IOException;
+
+    void save(File outputFile) throws IOException;
+}
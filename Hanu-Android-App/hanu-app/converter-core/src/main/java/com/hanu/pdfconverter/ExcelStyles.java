@@ -0,0 +1,144 @@
+package com.hanu.pdfconverter;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFColor;
+import org.apache.poi.xssf.usermodel.XSSFFont;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * ExcelStyles - One workbook's cell styles and fonts, created once per distinct look.
+ *
+ * A workbook holds at most 64,000 cell styles and each one is written into
+ * styles.xml, so styles must never be created per cell. Writers describe a look
+ * as a Spec (shared, immutable, usable across workbooks) and ask the registry
+ * for its CellStyle:
+ *  - equal Specs get the same CellStyle; fonts are shared the same way, keyed by
+ *    weight and colour, and the plain look uses the workbook's default font
+ *  - data formats go through the workbook's own format table, which already dedups
+ * Writers resolve their styles once, up front, so hot loops only assign them.
+ * Not thread-safe, like the workbook.
+ */
+final class ExcelStyles {
+
+    // Colour value meaning "none": default font colour, no fill
+    static final int NONE = -1;
+
+    /**
+     * A cell look: bold and font colour, solid fill, wrapping and number format.
+     * Colours are 0xRRGGBB or NONE; a null data format is General.
+     */
+    static final class Spec {
+        final boolean bold;
+        final int fontColor;
+        final int fill;
+        final boolean wrap;
+        final String dataFormat;
+
+        Spec(boolean bold, int fontColor, int fill, boolean wrap, String dataFormat) {
+            this.bold = bold;
+            this.fontColor = fontColor;
+            this.fill = fill;
+            this.wrap = wrap;
+            this.dataFormat = dataFormat;
+        }
+
+        /** The same look with another number format. */
+        Spec withDataFormat(String format) {
+            return new Spec(bold, fontColor, fill, wrap, format);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Spec)) return false;
+            Spec other = (Spec) o;
+            return bold == other.bold && fontColor == other.fontColor && fill == other.fill
+                && wrap == other.wrap && Objects.equals(dataFormat, other.dataFormat);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(bold, fontColor, fill, wrap, dataFormat);
+        }
+    }
+
+    // ─────────────────────────────────────────────
+    // Looks used by ExcelWriter
+    // ─────────────────────────────────────────────
+
+    static final Spec HEADER = new Spec(true, NONE, 0x228B57, false, null);
+    static final Spec CONTENT = new Spec(false, NONE, NONE, true, null);
+    static final Spec ALT_ROW = new Spec(false, NONE, 0xF2F7F4, true, null);
+    static final Spec DATE = CONTENT.withDataFormat("yyyy-mm-dd");
+    static final Spec ALT_DATE = ALT_ROW.withDataFormat("yyyy-mm-dd");
+
+    private final Workbook workbook;
+    private final Map<Spec, CellStyle> styles = new HashMap<>();
+    // Keyed by colour, one map per weight
+    private final Map<Integer, Font> regularFonts = new HashMap<>();
+    private final Map<Integer, Font> boldFonts = new HashMap<>();
+
+    ExcelStyles(Workbook workbook) {
+        this.workbook = workbook;
+    }
+
+    /**
+     * The workbook's style for the spec, created on first request.
+     */
+    CellStyle get(Spec spec) {
+        CellStyle style = styles.get(spec);
+        if (style == null) {
+            style = create(spec);
+            styles.put(spec, style);
+        }
+        return style;
+    }
+
+    /** Number of distinct styles created so far. */
+    int size() {
+        return styles.size();
+    }
+
+    private CellStyle create(Spec spec) {
+        XSSFCellStyle style = (XSSFCellStyle) workbook.createCellStyle();
+        Font font = font(spec.bold, spec.fontColor);
+        if (font != null) style.setFont(font);
+        if (spec.fill != NONE) {
+            style.setFillForegroundColor(color(spec.fill));
+            style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+        }
+        if (spec.wrap) style.setWrapText(true);
+        if (spec.dataFormat != null) {
+            style.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat(spec.dataFormat));
+        }
+        return style;
+    }
+
+    /**
+     * Shared font for the weight and colour, or null for the workbook default.
+     */
+    private Font font(boolean bold, int color) {
+        if (!bold && color == NONE) return null;
+        Map<Integer, Font> fonts = bold ? boldFonts : regularFonts;
+        Font font = fonts.get(color);
+        if (font == null) {
+            XSSFFont created = (XSSFFont) workbook.createFont();
+            created.setBold(bold);
+            if (color != NONE) created.setColor(color(color));
+            font = created;
+            fonts.put(color, font);
+        }
+        return font;
+    }
+
+    private static XSSFColor color(int rgb) {
+        return new XSSFColor(new byte[]{(byte) (rgb >> 16), (byte) (rgb >> 8), (byte) rgb}, null);
+    }
+}
@@ -0,0 +1,261 @@
+package com.hanu.pdfconverter;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * ExcelWriter - Writes extracted pages as rows/cells of an .xlsx sheet.
+ *
+ * Rows are streamed through SXSSF, so only a small window stays in memory and
+ * older rows are flushed to a temp file. close() removes those temp files.
+ *
+ * Pages with a cell grid (see TableExtractor) are written column-aligned, with
+ * cells that read as numbers or dates stored as numeric/date values. Pages with
+ * plain lines only fall back to splitting on tabs and runs of spaces (see CellTokenizer).
+ *
+ * Cell styles come from an ExcelStyles registry, one per distinct look.
+ *
+ * Column widths are estimated from the longest text written to each column as
+ * rows go by, then applied once in save(); nothing rescans the sheet.
+ */
+class ExcelWriter implements DocumentWriter {
+
+    // Rows kept in memory while writing; older rows are flushed to a temp file
+    private static final int ROW_WINDOW = 200;
+
+    // Estimated widths, in characters; wrap text takes over past the cap
+    private static final int MIN_COLUMN_CHARS = 8;
+    private static final int MAX_COLUMN_CHARS = 60;
+    // Display width of a date cell ("yyyy-mm-dd")
+    private static final int DATE_CHARS = 10;
+
+    // Integers beyond this many digits (account numbers, IDs) lose precision as doubles
+    private static final int MAX_NUMBER_DIGITS = 15;
+
+    // Accepted date layouts, tried in order; day-first where the order is ambiguous
+    private static final String[] DATE_PATTERNS = {
+        "yyyy-MM-dd", "dd/MM/yyyy", "dd-MM-yyyy", "dd.MM.yyyy",
+        "dd MMM yyyy", "dd-MMM-yyyy", "MMM dd, yyyy", "dd/MM/yy"
+    };
+
+    private final CancellationToken cancellation;
+    private final SXSSFWorkbook workbook;
+    private final SXSSFSheet sheet;
+    private final CellStyle headerStyle;
+    private final CellStyle contentStyle;
+    private final CellStyle altRowStyle;
+    private final CellStyle dateStyle;
+    private final CellStyle altDateStyle;
+    private final SimpleDateFormat[] dateFormats = new SimpleDateFormat[DATE_PATTERNS.length];
+    private final Calendar calendar = Calendar.getInstance();
+    private final CellTokenizer tokenizer = new CellTokenizer();
+    // Longest text seen per column, in characters
+    private int[] columnChars = new int[16];
+    private int columnCount;
+    private int rowNum;
+
+    ExcelWriter(CancellationToken cancellation) {
+        this.cancellation = cancellation;
+        workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        sheet = workbook.createSheet("Converted PDF");
+
+        // Styles, resolved once; rows only assign them
+        ExcelStyles styles = new ExcelStyles(workbook);
+        headerStyle = styles.get(ExcelStyles.HEADER);
+        contentStyle = styles.get(ExcelStyles.CONTENT);
+        altRowStyle = styles.get(ExcelStyles.ALT_ROW);
+        dateStyle = styles.get(ExcelStyles.DATE);
+        altDateStyle = styles.get(ExcelStyles.ALT_DATE);
+
+        for (int i = 0; i < DATE_PATTERNS.length; i++) {
+            dateFormats[i] = new SimpleDateFormat(DATE_PATTERNS[i], Locale.US);
+            dateFormats[i].setLenient(false);
+        }
+    }
+
+    @Override
+    public void addPage(TextPage page) {
+        // Page marker row, then the page's lines
+        writeRow("--- Page " + page.number + " ---");
+
+        if (page.rows != null) {
+            for (String[] cells : page.rows) {
+                cancellation.throwIfCancelled();
+                writeTypedRow(cells);
+            }
+            return;
+        }
+        for (String rawLine : page.lines) {
+            String line = rawLine.trim();
+            if (line.isEmpty()) continue;
+            cancellation.throwIfCancelled();
+            writeRow(line);
+        }
+    }
+
+    @Override
+    public void save(File outputFile) throws IOException {
+        // Width is in 1/256ths of a character, plus a little padding
+        for (int c = 0; c < columnCount; c++) {
+            int chars = Math.max(MIN_COLUMN_CHARS, Math.min(MAX_COLUMN_CHARS, columnChars[c]));
+            sheet.setColumnWidth(c, (chars + 2) * 256);
+        }
+        try (FileOutputStream fos = new FileOutputStream(outputFile)) {
+            workbook.write(fos);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Remove the temp files backing flushed rows
+        workbook.dispose();
+        workbook.close();
+    }
+
+    private void writeRow(String line) {
+        Row row = sheet.createRow(rowNum++);
+        tokenizer.reset(line); // tab or 3+ spaces = column
+
+        for (int c = 0; tokenizer.next(); c++) {
+            Cell cell = row.createCell(c);
+            String text = line.substring(tokenizer.start(), tokenizer.end());
+            cell.setCellValue(text);
+            measure(c, text.length());
+            if (rowNum == 1) {
+                cell.setCellStyle(headerStyle);
+            } else if (rowNum % 2 == 0) {
+                cell.setCellStyle(altRowStyle);
+            } else {
+                cell.setCellStyle(contentStyle);
+            }
+        }
+    }
+
+    private void writeTypedRow(String[] cells) {
+        Row row = sheet.createRow(rowNum++);
+        boolean alt = rowNum % 2 == 0;
+
+        for (int c = 0; c < cells.length; c++) {
+            String text = cells[c].trim();
+            if (text.isEmpty()) continue;
+            Cell cell = row.createCell(c);
+
+            double number = parseNumber(text);
+            if (!Double.isNaN(number)) {
+                cell.setCellValue(number);
+                cell.setCellStyle(alt ? altRowStyle : contentStyle);
+                measure(c, text.length());
+                continue;
+            }
+            Date date = parseDate(text);
+            if (date != null) {
+                cell.setCellValue(date);
+                cell.setCellStyle(alt ? altDateStyle : dateStyle);
+                measure(c, DATE_CHARS);
+                continue;
+            }
+            cell.setCellValue(text);
+            cell.setCellStyle(alt ? altRowStyle : contentStyle);
+            measure(c, text.length());
+        }
+    }
+
+    private void measure(int column, int chars) {
+        if (column >= columnChars.length) {
+            columnChars = Arrays.copyOf(columnChars, Math.max(column + 1, columnChars.length * 2));
+        }
+        if (chars > columnChars[column]) columnChars[column] = chars;
+        if (column >= columnCount) columnCount = column + 1;
+    }
+
+    /**
+     * Reads "1,234.50", "1,23,456", "-12", "(1,234.50)" or "₹ 99.95" as a number.
+     * Returns NaN for anything else, including numbers with leading zeros, which
+     * are usually codes.
+     */
+    private static double parseNumber(String text) {
+        int start = 0;
+        int end = text.length();
+        boolean negative = false;
+
+        if (end - start >= 2 && text.charAt(start) == '(' && text.charAt(end - 1) == ')') {
+            negative = true;
+            start++;
+            end--;
+        }
+        if (start < end && (text.charAt(start) == '-' || text.charAt(start) == '+')) {
+            negative ^= text.charAt(start) == '-';
+            start++;
+        }
+        if (start < end && isCurrencySymbol(text.charAt(start))) {
+            start++;
+            while (start < end && text.charAt(start) == ' ') start++;
+        }
+        if (start >= end) return Double.NaN;
+
+        StringBuilder digits = new StringBuilder(end - start);
+        int digitCount = 0;
+        int groupDigits = -1; // digits since the last thousands separator, -1 if none yet
+        boolean seenDot = false;
+        for (int i = start; i < end; i++) {
+            char ch = text.charAt(i);
+            if (ch >= '0' && ch <= '9') {
+                digits.append(ch);
+                digitCount++;
+                if (groupDigits >= 0 && !seenDot) groupDigits++;
+            } else if (ch == ',' && !seenDot && digitCount > 0) {
+                if (groupDigits >= 0 && groupDigits != 3 && groupDigits != 2) return Double.NaN;
+                groupDigits = 0;
+            } else if (ch == '.' && !seenDot && digitCount > 0) {
+                if (groupDigits >= 0 && groupDigits != 3) return Double.NaN;
+                seenDot = true;
+                digits.append('.');
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (digitCount == 0 || digitCount > MAX_NUMBER_DIGITS) return Double.NaN;
+        if (!seenDot && groupDigits >= 0 && groupDigits != 3) return Double.NaN;
+        if (digits.length() > 1 && digits.charAt(0) == '0' && digits.charAt(1) != '.') {
+            return Double.NaN;
+        }
+
+        double value = Double.parseDouble(digits.toString());
+        return negative ? -value : value;
+    }
+
+    private static boolean isCurrencySymbol(char ch) {
+        return ch == '$' || ch == '€' || ch == '£' || ch == '¥' || ch == '₹';
+    }
+
+    private Date parseDate(String text) {
+        // Cheap shape check before trying the formats: 6-12 chars, ending in a year digit
+        int length = text.length();
+        if (length < 6 || length > 12 || !Character.isDigit(text.charAt(length - 1))) return null;
+
+        for (SimpleDateFormat format : dateFormats) {
+            ParsePosition position = new ParsePosition(0);
+            Date date = format.parse(text, position);
+            if (date == null || position.getIndex() != length) continue;
+            // "yyyy" also accepts two-digit years literally (0024), so bound the year
+            calendar.setTime(date);
+            int year = calendar.get(Calendar.YEAR);
+            if (year >= 1900 && year <= 2100) return date;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,283 @@
+package com.hanu.pdfconverter;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * OcrStage - Recovers text from pages that have no text layer (scans, photos).
+ *
+ * PageTextStream hands over only pages whose extracted text is blank, so
+ * documents with a text layer never render a page or start a thread here.
+ *  - The page is rendered at OCR_DPI through the source's renderer, opened on
+ *    first use and shared by the extraction workers one page at a time
+ *  - Pages larger than one tile are cut into overlapping tiles, recognized in
+ *    parallel on a fixed pool; a word is kept by the tile whose core (the tile
+ *    without its overlap) holds its centre, so words on a seam appear once
+ *  - Words are grouped into lines by their vertical centre, with a blank line at
+ *    wide vertical gaps, and fed to a TableLayout for the Excel cell grid
+ *
+ * All OCR in one document shares a time budget, counted from the moment the
+ * first blank page is handed over, so extraction and writing before it don't
+ * use it up. Once it is spent, remaining blank pages are left blank. A page's bitmap is released only after every tile
+ * that started on it has returned, even when the page gave up early.
+ */
+class OcrStage implements Closeable {
+
+    // Recognition accuracy levels off above ~200 dpi for body text
+    private static final int OCR_DPI = 200;
+    private static final SlideImageProfile OCR_PROFILE = new SlideImageProfile(
+        OCR_DPI, 12_000_000L, SlideImageProfile.ColorDepth.ARGB_8888, SlideImageProfile.Codec.PNG, 100);
+
+    // Tile size and overlap in pixels; strips are wide so text lines are rarely cut
+    private static final int TILE_WIDTH = 2048;
+    private static final int TILE_HEIGHT = 1024;
+    private static final int OVERLAP_X = 256;
+    private static final int OVERLAP_Y = 96;
+
+    // Vertical gap, in line heights, that marks a paragraph break
+    private static final float PARAGRAPH_GAP = 1.0f;
+    // Horizontal gap, in average glyph widths, that marks a column break
+    private static final float COLUMN_GAP = 2.0f;
+    // Written for a column break: three spaces, the shortest run CellTokenizer splits on
+    private static final String COLUMN_BREAK = "   ";
+
+    private final PdfSource source;
+    private final TextRecognizer recognizer;
+    private final ExecutorService pool;
+    private final ConversionMetrics metrics;
+    private final long budgetNanos;
+
+    // Set when the first page is handed over; guarded by this
+    private boolean budgetStarted;
+    private long deadlineNanos;
+
+    // Guarded by itself; one page renders at a time
+    private final Object renderLock = new Object();
+    private PageRenderer renderer;
+
+    OcrStage(PdfSource source, TextRecognizer recognizer, int threads, long budgetMillis,
+             ConversionMetrics metrics) {
+        this.source = source;
+        this.recognizer = recognizer;
+        this.metrics = metrics;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, budgetMillis));
+        this.pool = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread thread = new Thread(r, "hanu-ocr");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Text of a page read by OCR, or null if the time budget is spent or
+     * recognition failed, in which case the page stays blank and is not cached.
+     */
+    TextPage recognize(int pageNumber, int totalPages) throws InterruptedException {
+        if (remainingMillis() <= 0) return null;
+
+        ConversionMetrics.Section section = metrics.begin(ConversionMetrics.Stage.OCR, pageNumber);
+        RenderedPage image = null;
+        try {
+            synchronized (renderLock) {
+                if (renderer == null) renderer = source.openRenderer();
+                image = renderer.render(pageNumber - 1, OCR_PROFILE);
+            }
+            List<TextRecognizer.Word> words = recognizeTiles(image);
+            return words != null ? layOut(pageNumber, totalPages, words) : null;
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            return null;
+        } finally {
+            if (image != null) image.release();
+            section.end();
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+        synchronized (renderLock) {
+            if (renderer != null) {
+                try {
+                    renderer.close();
+                } catch (Exception ignored) {
+                }
+                renderer = null;
+            }
+        }
+        // The recognizer belongs to the engine's owner and outlives the document
+    }
+
+    /** Budget left; the first call starts the clock. */
+    private synchronized long remainingMillis() {
+        long now = System.nanoTime();
+        if (!budgetStarted) {
+            budgetStarted = true;
+            deadlineNanos = now + budgetNanos;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - now);
+    }
+
+    /**
+     * Words of the whole page in page coordinates, or null if a tile failed or ran out of time.
+     */
+    private List<TextRecognizer.Word> recognizeTiles(RenderedPage image) throws InterruptedException {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int cols = (width + TILE_WIDTH - 1) / TILE_WIDTH;
+        int rows = (height + TILE_HEIGHT - 1) / TILE_HEIGHT;
+
+        List<Future<List<TextRecognizer.Word>>> tiles = new ArrayList<>(cols * rows);
+        TileGate gate = new TileGate();
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                // Core of the tile; the recognized area adds the overlap on every side
+                int coreLeft = width * c / cols;
+                int coreRight = width * (c + 1) / cols;
+                int coreTop = height * r / rows;
+                int coreBottom = height * (r + 1) / rows;
+                int left = Math.max(0, coreLeft - OVERLAP_X);
+                int top = Math.max(0, coreTop - OVERLAP_Y);
+                int right = Math.min(width, coreRight + OVERLAP_X);
+                int bottom = Math.min(height, coreBottom + OVERLAP_Y);
+
+                tiles.add(pool.submit(() -> {
+                    if (!gate.enter()) return Collections.emptyList();
+                    try {
+                        long remaining = remainingMillis();
+                        if (remaining <= 0) throw new TimeoutException("OCR time budget spent");
+                        List<TextRecognizer.Word> found =
+                            recognizer.recognize(image, left, top, right - left, bottom - top, remaining);
+                        List<TextRecognizer.Word> kept = new ArrayList<>(found.size());
+                        for (TextRecognizer.Word w : found) {
+                            int cx = left + (w.left + w.right) / 2;
+                            int cy = top + (w.top + w.bottom) / 2;
+                            if (cx < coreLeft || cx >= coreRight || cy < coreTop || cy >= coreBottom) continue;
+                            kept.add(new TextRecognizer.Word(w.text, left + w.left, top + w.top,
+                                left + w.right, top + w.bottom));
+                        }
+                        return kept;
+                    } finally {
+                        gate.exit();
+                    }
+                }));
+            }
+        }
+
+        List<TextRecognizer.Word> words = new ArrayList<>();
+        try {
+            for (Future<List<TextRecognizer.Word>> tile : tiles) {
+                words.addAll(tile.get(Math.max(1, remainingMillis()), TimeUnit.MILLISECONDS));
+            }
+            return words;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        } finally {
+            // Drop queued tiles and interrupt running ones. An interrupt doesn't stop a
+            // recognizer that is still reading the bitmap, so wait for those to return:
+            // the caller releases the page to the pool right after this
+            for (Future<List<TextRecognizer.Word>> tile : tiles) {
+                tile.cancel(true);
+            }
+            gate.closeAndAwait();
+        }
+    }
+
+    /**
+     * Counts the tiles of one page that are inside the recognizer. Once closed, tiles
+     * that had not started yet skip recognition.
+     */
+    private static final class TileGate {
+        private int running;
+        private boolean closed;
+
+        synchronized boolean enter() {
+            if (closed) return false;
+            running++;
+            return true;
+        }
+
+        synchronized void exit() {
+            if (--running == 0) notifyAll();
+        }
+
+        /** Closes the gate and waits for running tiles; an interrupt is kept for the caller. */
+        synchronized void closeAndAwait() {
+            closed = true;
+            boolean interrupted = false;
+            while (running > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+
+    private static TextPage layOut(int pageNumber, int totalPages, List<TextRecognizer.Word> words) {
+        Collections.sort(words, (a, b) -> Integer.compare(a.top + a.bottom, b.top + b.bottom));
+
+        // Group words whose vertical centre falls inside the current line's band
+        List<List<TextRecognizer.Word>> lines = new ArrayList<>();
+        List<TextRecognizer.Word> current = null;
+        int bandBottom = Integer.MIN_VALUE;
+        for (TextRecognizer.Word word : words) {
+            if (word.text.trim().isEmpty()) continue;
+            int centre = (word.top + word.bottom) / 2;
+            if (current == null || centre > bandBottom) {
+                current = new ArrayList<>();
+                lines.add(current);
+                bandBottom = word.bottom;
+            }
+            current.add(word);
+        }
+
+        List<String> text = new ArrayList<>(lines.size());
+        TableLayout layout = new TableLayout();
+        int previousTop = 0;
+        int previousBottom = 0;
+        for (List<TextRecognizer.Word> line : lines) {
+            Collections.sort(line, (a, b) -> Integer.compare(a.left, b.left));
+            int top = Integer.MAX_VALUE;
+            int bottom = Integer.MIN_VALUE;
+            for (TextRecognizer.Word word : line) {
+                top = Math.min(top, word.top);
+                bottom = Math.max(bottom, word.bottom);
+            }
+            if (!text.isEmpty() && top - previousBottom > PARAGRAPH_GAP * (previousBottom - previousTop)) {
+                text.add("");
+            }
+
+            StringBuilder sb = new StringBuilder();
+            TextRecognizer.Word last = null;
+            for (TextRecognizer.Word word : line) {
+                String w = word.text.trim();
+                int glyphs = Math.max(1, w.length());
+                if (last != null) {
+                    float glyphWidth = (float) (word.right - word.left) / glyphs;
+                    sb.append(word.left - last.right > COLUMN_GAP * glyphWidth ? COLUMN_BREAK : " ");
+                }
+                sb.append(w);
+                layout.addWord(w, word.left, word.right, word.right - word.left, glyphs);
+                last = word;
+            }
+            layout.endLine();
+            text.add(sb.toString());
+            previousTop = top;
+            previousBottom = bottom;
+        }
+        return new TextPage(pageNumber, totalPages, text.isEmpty() ? Arrays.asList("") : text, layout.rows());
+    }
+}
@@ -0,0 +1,24 @@
+package com.hanu.pdfconverter;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * PageRenderer - Rasterizes pages for PowerPoint slides and OCR.
+ *
+ * Each renderer is used one page at a time (SlideRenderPipeline's render thread,
+ * or OcrStage under its lock), so implementations may wrap renderers that are
+ * not thread-safe. Slide pages come in order; OCR pages may skip ahead.
+ */
+public interface PageRenderer extends Closeable {
+
+    int getPageCount();
+
+    /** Renders a page, numbered from 0, at the profile's scale and colour depth on white. */
+    RenderedPage render(int pageIndex, SlideImageProfile profile) throws IOException;
+
+    /** Short resource summary shown while the deck is saved, or null. */
+    default String stats() {
+        return null;
+    }
+}
@@ -0,0 +1,175 @@
+package com.hanu.pdfconverter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * PageSelection - The pages of a PDF to convert, as a set of page ranges.
+ *
+ * Parsed from text such as "3-7", "1, 4, 10-12" or "200-" (to the last page);
+ * "-5" means pages 1 to 5. Pages are numbered from 1, and ranges may overlap or
+ * come in any order. Ranges past the end of a document select nothing there, so
+ * one selection can be applied to documents of any length.
+ *
+ * The engine asks for the selected pages of the document once its page count is
+ * known (see {@link #pages(int)}); unselected pages are never stripped, recognized
+ * or rendered. Immutable.
+ */
+public final class PageSelection {
+
+    private static final PageSelection ALL = new PageSelection(new int[]{1}, new int[]{Integer.MAX_VALUE});
+
+    // Sorted, non-overlapping, non-adjacent ranges; ends are inclusive
+    private final int[] starts;
+    private final int[] ends;
+
+    private PageSelection(int[] starts, int[] ends) {
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    /** Every page. */
+    public static PageSelection all() {
+        return ALL;
+    }
+
+    /**
+     * Pages first to last, inclusive.
+     *
+     * @throws IllegalArgumentException if first is below 1 or last is below first
+     */
+    public static PageSelection range(int first, int last) {
+        if (first < 1 || last < first) {
+            throw new IllegalArgumentException("Invalid page range: " + first + "-" + last);
+        }
+        return new PageSelection(new int[]{first}, new int[]{last});
+    }
+
+    /**
+     * Parses a comma-separated list of pages and ranges. Blank text selects every page.
+     *
+     * @throws IllegalArgumentException naming the part that is not a page or range
+     */
+    public static PageSelection parse(String text) {
+        if (text == null || text.trim().isEmpty()) return ALL;
+
+        List<int[]> ranges = new ArrayList<>();
+        for (String raw : text.split(",")) {
+            String part = raw.trim();
+            if (part.isEmpty()) continue;
+            int dash = part.indexOf('-');
+            int first;
+            int last;
+            if (dash < 0) {
+                first = last = pageNumber(part, part);
+            } else {
+                String from = part.substring(0, dash).trim();
+                String to = part.substring(dash + 1).trim();
+                if (from.isEmpty() && to.isEmpty()) throw invalid(part);
+                first = from.isEmpty() ? 1 : pageNumber(from, part);
+                last = to.isEmpty() ? Integer.MAX_VALUE : pageNumber(to, part);
+                if (last < first) throw invalid(part);
+            }
+            ranges.add(new int[]{first, last});
+        }
+        if (ranges.isEmpty()) return ALL;
+
+        // Sort and merge, so lookups and page lists walk the ranges once
+        ranges.sort((a, b) -> Integer.compare(a[0], b[0]));
+        int[] starts = new int[ranges.size()];
+        int[] ends = new int[ranges.size()];
+        int n = 0;
+        for (int[] range : ranges) {
+            if (n > 0 && (long) range[0] <= (long) ends[n - 1] + 1) {
+                ends[n - 1] = Math.max(ends[n - 1], range[1]);
+            } else {
+                starts[n] = range[0];
+                ends[n] = range[1];
+                n++;
+            }
+        }
+        if (n == 1 && starts[0] == 1 && ends[0] == Integer.MAX_VALUE) return ALL;
+        return new PageSelection(Arrays.copyOf(starts, n), Arrays.copyOf(ends, n));
+    }
+
+    public boolean isAll() {
+        return starts.length == 1 && starts[0] == 1 && ends[0] == Integer.MAX_VALUE;
+    }
+
+    public boolean contains(int page) {
+        for (int i = 0; i < starts.length && starts[i] <= page; i++) {
+            if (page <= ends[i]) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Number of selected pages in a document with pageCount pages.
+     */
+    public int size(int pageCount) {
+        long count = 0;
+        for (int i = 0; i < starts.length && starts[i] <= pageCount; i++) {
+            count += (long) Math.min(ends[i], pageCount) - starts[i] + 1;
+        }
+        return (int) Math.min(count, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Selected page numbers of a document with pageCount pages, ascending.
+     */
+    public int[] pages(int pageCount) {
+        int[] pages = new int[size(pageCount)];
+        int n = 0;
+        for (int i = 0; i < starts.length && starts[i] <= pageCount; i++) {
+            int last = Math.min(ends[i], pageCount);
+            for (int p = starts[i]; p <= last; p++) {
+                pages[n++] = p;
+            }
+        }
+        return pages;
+    }
+
+    /** Canonical form, such as "1-3, 7, 10-"; parse() reads it back. */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < starts.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(starts[i]);
+            if (ends[i] == Integer.MAX_VALUE) {
+                sb.append('-');
+            } else if (ends[i] != starts[i]) {
+                sb.append('-').append(ends[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PageSelection)) return false;
+        PageSelection other = (PageSelection) o;
+        return Arrays.equals(starts, other.starts) && Arrays.equals(ends, other.ends);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(starts) + Arrays.hashCode(ends);
+    }
+
+    private static int pageNumber(String number, String part) {
+        try {
+            int page = Integer.parseInt(number);
+            if (page < 1) throw invalid(part);
+            return page;
+        } catch (NumberFormatException e) {
+            throw invalid(part);
+        }
+    }
+
+    private static IllegalArgumentException invalid(String part) {
+        return new IllegalArgumentException("Invalid page range: \"" + part + "\"");
+    }
+}
@@ -0,0 +1,18 @@
+package com.hanu.pdfconverter;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * PageTextExtractor - Pulls text out of one parsed copy of a document, page by page.
+ *
+ * Used by a single PageTextStream worker; pages are requested in increasing but
+ * not necessarily consecutive order.
+ */
+public interface PageTextExtractor extends Closeable {
+
+    int getPageCount();
+
+    /** Lines and cell grid of a page, numbered from 1. */
+    TextPage extract(int pageNumber) throws IOException;
+}
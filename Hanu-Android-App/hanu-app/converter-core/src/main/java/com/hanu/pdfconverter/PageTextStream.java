@@ -0,0 +1,271 @@
+package com.hanu.pdfconverter;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * PageTextStream - Extracts PDF text one page at a time on background threads.
+ *
+ * Each worker opens its own PageTextExtractor from the PdfSource (its own parsed
+ * copy of the document, yielding text plus cell grid) and claims the next
+ * unclaimed page, so long documents use several cores. Finished pages are handed back strictly in
+ * page order, and workers never run more than a small window ahead of the
+ * writer, so only a few pages of text are ever held in memory.
+ *
+ * Only the pages of the PageSelection are claimed; the others are never stripped.
+ * With a ConversionCache entry, cached pages are read back instead of stripped,
+ * and if every selected page is cached (with OCR on, none of them blank) the PDF
+ * is never opened. A page that disappears from the cache meanwhile (evicted by
+ * another conversion) is no error: workers start and extract it and the pages
+ * after it. Opening and extraction are timed as the LOAD and EXTRACT stages of
+ * the ConversionMetrics.
+ *
+ * Given an OcrStage, pages whose extracted text is blank are passed to it; pages
+ * with text never reach it. OCR results are cached like extracted text, but a
+ * page OCR gave up on (time budget spent) stays blank and uncached, so a later
+ * run can try again.
+ */
+class PageTextStream implements Closeable {
+
+    // Pages extracted ahead of the writer, on top of one in flight per worker
+    private static final int QUEUE_DEPTH = 4;
+
+    private static final List<String> FALLBACK_LINES = Arrays.asList(
+        "This PDF may be image-based or encrypted.",
+        "Text extraction was not possible.",
+        "For scanned PDFs, please use an OCR tool first.");
+
+    private final PdfSource source;
+    private final ConversionCache.Entry cache;
+    private final ConversionMetrics metrics;
+    private final OcrStage ocr;
+    private final PageSelection selection;
+    private final int workerCount;
+
+    // All fields below are guarded by lock
+    private final Object lock = new Object();
+    // Empty while every page is read from the cache
+    private Thread[] workers = new Thread[0];
+    private int window;
+    private final Map<Integer, TextPage> ready = new HashMap<>();
+    private int totalPages = -1;
+    // Selected page numbers, once the page count is known; the two cursors index into it
+    private int[] selected;
+    private int nextToClaim;
+    private int nextToDeliver;
+    private int runningWorkers;
+    private boolean failed;
+    private boolean fallbackSent;
+    private boolean closed;
+
+    PageTextStream(PdfSource source) {
+        this(source, 1, null, ConversionMetrics.DISABLED, null, PageSelection.all());
+    }
+
+    PageTextStream(PdfSource source, int workerCount, ConversionCache.Entry cache,
+                   ConversionMetrics metrics, OcrStage ocr, PageSelection selection) {
+        this.source = source;
+        this.cache = cache;
+        this.metrics = metrics;
+        this.ocr = ocr;
+        this.selection = selection;
+        this.workerCount = workerCount;
+        int knownPages = cache != null ? cache.pageCount() : -1;
+        if (knownPages > 0) {
+            int[] pages = selection.pages(knownPages);
+            // With OCR on, blank cached pages go to the workers, as in work()
+            if (pages.length > 0 && cache.hasText(pages, ocr != null)) {
+                // Everything is on disk; next() reads pages straight from the cache
+                this.totalPages = knownPages;
+                this.selected = pages;
+                return;
+            }
+        }
+        synchronized (lock) {
+            startWorkers(selection.size(knownPages > 0 ? knownPages : Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Blocks until the next selected page in order is extracted. Returns null once
+     * every selected page has been read.
+     *
+     * @throws IllegalArgumentException if the selection has no page in this document
+     */
+    TextPage next() throws InterruptedException {
+        synchronized (lock) {
+            while (true) {
+                if (selected != null && selected.length == 0) {
+                    throw new IllegalArgumentException(noPagesMessage(selection, totalPages));
+                }
+                if (selected != null && nextToDeliver < selected.length) {
+                    int number = selected[nextToDeliver];
+                    TextPage page = ready.remove(number);
+                    if (page != null) {
+                        nextToDeliver++;
+                        lock.notifyAll();
+                        return page;
+                    }
+                    if (workers.length == 0 && !failed) {
+                        List<String> lines = cache.getText(number);
+                        List<String[]> rows = cache.getTable(number);
+                        if (lines != null && rows != null) {
+                            nextToDeliver++;
+                            return new TextPage(number, totalPages, lines, rows);
+                        }
+                        // Evicted since the constructor checked; extract this page and the rest
+                        nextToClaim = nextToDeliver;
+                        startWorkers(selected.length - nextToDeliver);
+                        continue;
+                    }
+                }
+                if (runningWorkers == 0) {
+                    if (failed && !fallbackSent) {
+                        // Fallback: emit a message page if text extraction fails
+                        fallbackSent = true;
+                        return new TextPage(1, 1, FALLBACK_LINES);
+                    }
+                    return null;
+                }
+                lock.wait();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        Thread[] started;
+        synchronized (lock) {
+            closed = true;
+            started = workers;
+            lock.notifyAll();
+        }
+        for (Thread worker : started) {
+            worker.interrupt();
+        }
+        try {
+            for (Thread worker : started) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Starts the extraction workers, no more than pages left to strip; each one parses
+     * its own copy. Called once, holding lock.
+     */
+    private void startWorkers(int pagesLeft) {
+        int count = Math.max(1, Math.min(workerCount, pagesLeft));
+        window = QUEUE_DEPTH + count;
+        workers = new Thread[count];
+        runningWorkers = count;
+        for (int i = 0; i < count; i++) {
+            workers[i] = new Thread(this::work, "hanu-text-extract-" + i);
+            workers[i].start();
+        }
+    }
+
+    private void work() {
+        PageTextExtractor extractor = null;
+        try {
+            ConversionMetrics.Section load = metrics.begin(ConversionMetrics.Stage.LOAD, 0);
+            extractor = source.openTextExtractor();
+            load.end();
+
+            int pageCount = extractor.getPageCount();
+            synchronized (lock) {
+                totalPages = pageCount;
+                if (selected == null) selected = selection.pages(pageCount);
+                lock.notifyAll();
+            }
+            if (cache != null) cache.putPageCount(pageCount);
+
+            int p;
+            while ((p = claimPage()) > 0) {
+                List<String> lines = cache != null ? cache.getText(p) : null;
+                List<String[]> rows = cache != null ? cache.getTable(p) : null;
+                // Blank cached pages may predate OCR being turned on
+                if (lines == null || rows == null || (ocr != null && isBlank(lines))) {
+                    ConversionMetrics.Section extract = metrics.begin(ConversionMetrics.Stage.EXTRACT, p);
+                    TextPage extracted = extractor.extract(p);
+                    extract.end();
+                    boolean keep = true;
+                    if (ocr != null && isBlank(extracted.lines)) {
+                        TextPage recognized = ocr.recognize(p, pageCount);
+                        if (recognized != null) {
+                            extracted = recognized;
+                        } else {
+                            keep = false;
+                        }
+                    }
+                    lines = extracted.lines;
+                    rows = extracted.rows;
+                    if (cache != null && keep) {
+                        cache.putText(p, lines);
+                        // Extractors without table support leave rows null
+                        if (rows != null) cache.putTable(p, rows);
+                    }
+                }
+                TextPage page = new TextPage(p, pageCount, lines, rows);
+                synchronized (lock) {
+                    ready.put(p, page);
+                    lock.notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            // Writer closed the stream early; nothing left to hand over
+        } catch (Exception e) {
+            synchronized (lock) {
+                failed = true;
+            }
+        } finally {
+            closeQuietly(extractor);
+            synchronized (lock) {
+                runningWorkers--;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Returns the next selected page number to strip, waiting while the writer is a full window behind.
+     * Returns 0 when there is nothing left to claim.
+     */
+    private int claimPage() throws InterruptedException {
+        synchronized (lock) {
+            while (!closed && !failed && nextToClaim - nextToDeliver >= window) {
+                lock.wait();
+            }
+            if (closed || failed || nextToClaim >= selected.length) return 0;
+            return selected[nextToClaim++];
+        }
+    }
+
+    /**
+     * Error shown when a page selection misses the document entirely.
+     */
+    static String noPagesMessage(PageSelection selection, int pageCount) {
+        return "No pages selected: this PDF has " + pageCount + (pageCount == 1 ? " page" : " pages")
+            + ", the selection is " + selection + ".";
+    }
+
+    private static boolean isBlank(List<String> lines) {
+        for (String line : lines) {
+            if (!line.trim().isEmpty()) return false;
+        }
+        return true;
+    }
+
+    private static void closeQuietly(Closeable c) {
+        if (c == null) return;
+        try {
+            c.close();
+        } catch (Exception ignored) {
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.hanu.pdfconverter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ParagraphReflow - Joins a page's wrapped lines back into paragraphs for the Word writers.
+ *
+ * A PDF stores prose as one text line per printed line. Lines are joined when:
+ *  - the previous line runs (nearly) the full measure of the page, so it wrapped, or
+ *  - the previous line has no closing punctuation and the next starts in lower case
+ * and split at:
+ *  - blank lines, which the extractors emit where PDFBox sees a paragraph break
+ *    from line spacing or indentation
+ *  - list items (bullets, "1.", "a)") and column-aligned lines (tabs, runs of spaces)
+ * A soft hyphen at a line end ("infor-" + "mation") is removed when joining.
+ *
+ * A paragraph made of one short line without closing punctuation is a heading,
+ * the same test the writers used per line before.
+ *
+ * Table rows are neither joined nor taken for headings: a statement's transaction
+ * rows are short and unpunctuated too. A line is a table row when TableLayout
+ * split it into two or more cells; the extractors' lines are single-spaced, so
+ * only the cell grid shows the columns. When the page's lines and rows don't
+ * pair up one to one, the whole page counts as a table if at least half of its
+ * rows have several cells.
+ */
+final class ParagraphReflow {
+
+    enum Kind { HEADING, BODY }
+
+    static final class Paragraph {
+        final Kind kind;
+        final String text;
+
+        Paragraph(Kind kind, String text) {
+            this.kind = kind;
+            this.text = text;
+        }
+    }
+
+    // Lines at least this share of the page's measure are taken to have wrapped
+    private static final float FULL_LINE = 0.8f;
+    // Pages whose lines are all shorter than this (forms, tables) are not joined by width
+    private static final int MIN_MEASURE = 30;
+    private static final int MAX_HEADING_CHARS = 60;
+
+    private ParagraphReflow() {
+    }
+
+    /**
+     * Paragraphs of the page, in order. rows is the page's cell grid, or null if
+     * the extractor has none.
+     */
+    static List<Paragraph> reflow(List<String> lines, List<String[]> rows) {
+        boolean[] tableRows = tableRows(lines, rows);
+        int measure = measure(lines);
+        int fullLine = measure >= MIN_MEASURE ? Math.round(measure * FULL_LINE) : Integer.MAX_VALUE;
+
+        List<Paragraph> paragraphs = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        int lineCount = 0;
+        String previous = null;
+
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || tableRows[i]) {
+                flush(paragraphs, text, lineCount);
+                if (!line.isEmpty()) paragraphs.add(new Paragraph(Kind.BODY, line));
+                lineCount = 0;
+                previous = null;
+                continue;
+            }
+            if (previous != null && continues(previous, line, fullLine)) {
+                if (endsWithSoftHyphen(previous) && Character.isLowerCase(line.charAt(0))) {
+                    text.setLength(text.length() - 1);
+                } else {
+                    text.append(' ');
+                }
+            } else {
+                flush(paragraphs, text, lineCount);
+                lineCount = 0;
+            }
+            text.append(line);
+            lineCount++;
+            previous = line;
+        }
+        flush(paragraphs, text, lineCount);
+        return paragraphs;
+    }
+
+    /**
+     * One paragraph per line, with the same heading and table-row tests; the layout
+     * before reflow. Blank lines stay as empty paragraphs to keep the vertical spacing.
+     */
+    static List<Paragraph> perLine(List<String> lines, List<String[]> rows) {
+        boolean[] tableRows = tableRows(lines, rows);
+        List<Paragraph> paragraphs = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty()) {
+                paragraphs.add(new Paragraph(Kind.BODY, ""));
+                continue;
+            }
+            boolean heading = !tableRows[i] && isHeading(line);
+            paragraphs.add(new Paragraph(heading ? Kind.HEADING : Kind.BODY, line));
+        }
+        return paragraphs;
+    }
+
+    /**
+     * Per line, whether it is a table row (see the class comment).
+     */
+    private static boolean[] tableRows(List<String> lines, List<String[]> rows) {
+        boolean[] table = new boolean[lines.size()];
+        if (rows == null || rows.isEmpty()) return table;
+
+        int nonBlank = 0;
+        for (String line : lines) {
+            if (!line.trim().isEmpty()) nonBlank++;
+        }
+        if (nonBlank == rows.size()) {
+            int r = 0;
+            for (int i = 0; i < table.length; i++) {
+                if (lines.get(i).trim().isEmpty()) continue;
+                table[i] = filledCells(rows.get(r++)) >= 2;
+            }
+            return table;
+        }
+
+        int multiCell = 0;
+        for (String[] row : rows) {
+            if (filledCells(row) >= 2) multiCell++;
+        }
+        if (multiCell * 2 >= rows.size()) Arrays.fill(table, true);
+        return table;
+    }
+
+    private static int filledCells(String[] row) {
+        int filled = 0;
+        for (String cell : row) {
+            if (!cell.trim().isEmpty()) filled++;
+        }
+        return filled;
+    }
+
+    private static void flush(List<Paragraph> paragraphs, StringBuilder text, int lineCount) {
+        if (text.length() == 0) return;
+        String paragraph = text.toString();
+        boolean heading = lineCount == 1 && isHeading(paragraph);
+        paragraphs.add(new Paragraph(heading ? Kind.HEADING : Kind.BODY, paragraph));
+        text.setLength(0);
+    }
+
+    private static boolean continues(String previous, String line, int fullLine) {
+        if (isColumnar(previous) || isColumnar(line) || startsListItem(line)) return false;
+        if (previous.length() >= fullLine) return true;
+        return !endsClause(previous) && Character.isLowerCase(line.charAt(0));
+    }
+
+    /**
+     * Typical full line length of the page: the 90th percentile, so a few long
+     * outliers (URLs, table rows) don't set it.
+     */
+    private static int measure(List<String> lines) {
+        int[] lengths = new int[lines.size()];
+        int n = 0;
+        for (String line : lines) {
+            int length = line.trim().length();
+            if (length > 0) lengths[n++] = length;
+        }
+        if (n == 0) return 0;
+        Arrays.sort(lengths, 0, n);
+        return lengths[(n - 1) * 9 / 10];
+    }
+
+    private static boolean isHeading(String line) {
+        // Detect likely headings (short + no period at end)
+        return line.length() < MAX_HEADING_CHARS && !line.endsWith(".") && !line.endsWith(",");
+    }
+
+    private static boolean endsClause(String line) {
+        char last = line.charAt(line.length() - 1);
+        return last == '.' || last == '!' || last == '?' || last == ':' || last == ';';
+    }
+
+    private static boolean endsWithSoftHyphen(String line) {
+        int n = line.length();
+        return n >= 2 && line.charAt(n - 1) == '-' && Character.isLetter(line.charAt(n - 2));
+    }
+
+    private static boolean isColumnar(String line) {
+        return line.indexOf('\t') >= 0 || line.contains("  ");
+    }
+
+    private static boolean startsListItem(String line) {
+        char first = line.charAt(0);
+        if ("•◦▪‣●○■–—*-".indexOf(first) >= 0) {
+            return line.length() > 1 && Character.isWhitespace(line.charAt(1));
+        }
+        // "1." "12)" "a." "b)" followed by a space
+        int i = 0;
+        while (i < line.length() && i < 3 && Character.isDigit(line.charAt(i))) i++;
+        if (i == 0 && Character.isLetter(first)) i = 1;
+        return i > 0 && i + 1 < line.length()
+            && (line.charAt(i) == '.' || line.charAt(i) == ')')
+            && line.charAt(i + 1) == ' ';
+    }
+}
@@ -0,0 +1,32 @@
+package com.hanu.pdfconverter;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * PdfSource - A PDF document as the conversion engine sees it.
+ *
+ * Implementations bind a PDF parser and a rasterizer for one platform: the app's
+ * AndroidPdfSource (pdfbox-android + PdfRenderer) and converter-jvm's JvmPdfSource
+ * (PDFBox). A source serves one ConversionEngine.exportAll call:
+ *  - contentHash() keys the ConversionCache
+ *  - openTextExtractor() is called once per extraction worker; each gets its own
+ *    parsed copy of the document, so extractors need not be thread-safe
+ *  - openRenderer() is called once per stage that rasterizes (slides, OCR); each
+ *    renderer is driven from one thread at a time
+ * close() releases whatever the source set up (temp copies, descriptors).
+ */
+public interface PdfSource extends Closeable {
+
+    /** Stable hash of the document's bytes, e.g. hex SHA-256. */
+    String contentHash() throws IOException;
+
+    PageTextExtractor openTextExtractor() throws IOException;
+
+    PageRenderer openRenderer() throws IOException;
+
+    /** Size of the document in bytes, or -1 if unknown. Reported as bytes read when loading. */
+    default long length() {
+        return -1;
+    }
+}
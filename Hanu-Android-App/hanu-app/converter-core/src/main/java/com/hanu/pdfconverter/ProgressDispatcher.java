@@ -0,0 +1,57 @@
+package com.hanu.pdfconverter;
+
+/**
+ * ProgressDispatcher - Coalesces progress updates before they reach the ProgressCallback.
+ *
+ * Writers report from per-row and per-line loops, but the UI only needs an update
+ * when the percentage moves or every so often while it sits still. Hot-loop updates
+ * go through {@link #update}, which takes a StatusFormat plus int arguments, so a
+ * dropped update costs no allocation and no string building. Milestones such as
+ * "Saving…" and "Done!" go through {@link #report} and are always delivered.
+ *
+ * Not thread-safe; call from the conversion thread.
+ */
+class ProgressDispatcher {
+
+    /** Builds a status string from int arguments. Keep implementations non-capturing. */
+    interface StatusFormat {
+        String format(int a, int b, int c);
+    }
+
+    // Longest a changing status may go unrefreshed while the percentage stays the same
+    private static final long MIN_INTERVAL_NANOS = 250_000_000L;
+
+    private final ConversionEngine.ProgressCallback callback;
+    private int lastProgress = -1;
+    private long lastEmitNanos;
+
+    ProgressDispatcher(ConversionEngine.ProgressCallback callback) {
+        this.callback = callback;
+    }
+
+    /**
+     * Always delivered.
+     */
+    void report(int progress, String status) {
+        if (callback == null) return;
+        emit(progress, status);
+    }
+
+    /**
+     * Delivered only if the percentage changed or the last update is older than the
+     * minimum interval. The status is formatted only when it is delivered.
+     */
+    void update(int progress, StatusFormat format, int a, int b, int c) {
+        if (callback == null) return;
+        if (progress == lastProgress && System.nanoTime() - lastEmitNanos < MIN_INTERVAL_NANOS) {
+            return;
+        }
+        emit(progress, format.format(a, b, c));
+    }
+
+    private void emit(int progress, String status) {
+        lastProgress = progress;
+        lastEmitNanos = System.nanoTime();
+        callback.onProgress(progress, status);
+    }
+}
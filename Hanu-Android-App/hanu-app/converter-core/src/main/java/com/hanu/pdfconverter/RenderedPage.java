@@ -0,0 +1,19 @@
+package com.hanu.pdfconverter;
+
+import java.io.IOException;
+
+/**
+ * RenderedPage - Pixels of one rendered page, waiting to be encoded or read by OCR.
+ */
+public interface RenderedPage {
+
+    int getWidth();
+
+    int getHeight();
+
+    /** Compresses the page per the profile. Runs on an encoder thread, alongside rendering. */
+    SlideImageProfile.Encoded encode(SlideImageProfile profile) throws IOException;
+
+    /** Hands the pixel memory back once encoding or recognition is done or abandoned. */
+    void release();
+}
@@ -0,0 +1,121 @@
+package com.hanu.pdfconverter;
+
+import org.apache.poi.sl.usermodel.PictureData;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * SlideImageProfile - How PDF pages are rasterized and compressed for PowerPoint slides.
+ *
+ *  - dpi: render resolution (PDF pages are 72 points per inch)
+ *  - maxPixels: optional cap on width × height, applied after dpi (0 = no cap)
+ *  - depth: ARGB_8888 or RGB_565 for the pixels held while waiting to be encoded
+ *  - codec: PNG, JPEG, or AUTO to pick per page from its content
+ *  - quality: JPEG quality 0-100 (PNG is lossless and ignores it)
+ *
+ * Rasterizing and compressing are up to the platform's PageRenderer; this class
+ * only holds the settings and the decisions that don't depend on a pixel format.
+ */
+public final class SlideImageProfile {
+
+    public enum Codec { PNG, JPEG, AUTO }
+
+    public enum ColorDepth { ARGB_8888, RGB_565 }
+
+    /** The original output: 2x page size, full colour, lossless PNG. */
+    public static final SlideImageProfile LOSSLESS =
+        new SlideImageProfile(144, 0, ColorDepth.ARGB_8888, Codec.PNG, 100);
+
+    /** PNG for text and line-art pages, JPEG for photo-heavy pages, capped at ~4 MP. */
+    public static final SlideImageProfile AUTO =
+        new SlideImageProfile(144, 4_000_000L, ColorDepth.ARGB_8888, Codec.AUTO, 85);
+
+    // Distinct 12-bit colours in the sample grid above which a page is treated as a photo
+    private static final int PHOTO_COLOR_THRESHOLD = 256;
+    private static final int SAMPLE_GRID = 64;
+
+    final int dpi;
+    final long maxPixels;
+    final ColorDepth depth;
+    final Codec codec;
+    final int quality;
+
+    public SlideImageProfile(int dpi, long maxPixels, ColorDepth depth, Codec codec, int quality) {
+        this.dpi = Math.max(18, dpi);
+        this.maxPixels = Math.max(0, maxPixels);
+        this.depth = depth;
+        this.codec = codec;
+        this.quality = Math.max(0, Math.min(100, quality));
+    }
+
+    public static final class Encoded {
+        public final byte[] data;
+        public final PictureData.PictureType type;
+
+        public Encoded(byte[] data, PictureData.PictureType type) {
+            this.data = data;
+            this.type = type;
+        }
+    }
+
+    /**
+     * Directory name for images rendered with this profile in the ConversionCache.
+     */
+    String cacheKey() {
+        return "img-" + dpi + "-" + maxPixels + "-" + depth + "-" + codec + "-" + quality;
+    }
+
+    /**
+     * Pixel scale for a page of the given size in points, honouring dpi and maxPixels.
+     */
+    public float scaleFor(float pageWidthPt, float pageHeightPt) {
+        float scale = dpi / 72f;
+        if (maxPixels > 0) {
+            double pixels = (double) pageWidthPt * scale * pageHeightPt * scale;
+            if (pixels > maxPixels) {
+                scale *= (float) Math.sqrt(maxPixels / pixels);
+            }
+        }
+        return scale;
+    }
+
+    public ColorDepth getColorDepth() {
+        return depth;
+    }
+
+    public int getQuality() {
+        return quality;
+    }
+
+    /**
+     * Whether a rendered page should be stored as JPEG rather than PNG.
+     *
+     * @param pixelAt ARGB colour at (x, y)
+     */
+    public boolean prefersJpeg(int width, int height, IntBinaryOperator pixelAt) {
+        return codec == Codec.JPEG || (codec == Codec.AUTO && looksPhotographic(width, height, pixelAt));
+    }
+
+    /**
+     * Samples a grid of pixels and counts distinct colours at 4 bits per channel.
+     * Text and vector pages use a handful of colours; photos and scans use hundreds.
+     */
+    static boolean looksPhotographic(int width, int height, IntBinaryOperator pixelAt) {
+        int stepX = Math.max(1, width / SAMPLE_GRID);
+        int stepY = Math.max(1, height / SAMPLE_GRID);
+
+        boolean[] seen = new boolean[4096];
+        int distinct = 0;
+        for (int y = stepY / 2; y < height; y += stepY) {
+            for (int x = stepX / 2; x < width; x += stepX) {
+                int c = pixelAt.applyAsInt(x, y);
+                int key = ((c >> 12) & 0xF00) | ((c >> 8) & 0x0F0) | ((c >> 4) & 0x00F);
+                if (!seen[key]) {
+                    seen[key] = true;
+                    if (++distinct > PHOTO_COLOR_THRESHOLD) return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,177 @@
+package com.hanu.pdfconverter;
+
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SlideRenderPipeline - Render → encode stages feeding ordered slide assembly.
+ *
+ *  - Render: one thread owns the PageRenderer (it need not be thread-safe) and draws pages in order
+ *  - Encode: rendered pages are compressed per the SlideImageProfile on a pool sized to the cores
+ *  - Assemble: the caller takes encoded pages back in page order via {@link #next()}
+ *
+ * At most {@code queueDepth} pages are rendered but not yet assembled, which caps
+ * how many rendered and encoded images are alive at once. Each rendered page is
+ * released as soon as it is encoded, so renderers can recycle its pixel memory.
+ * close() releases pages whose encode never started and waits for running encodes,
+ * so the renderer can be closed right after it.
+ * Only the pages of the PageSelection are rendered, in page order. Pages already
+ * in the ConversionCache for this profile skip render and encode.
+ * Render and encode time land in the RENDER and ENCODE stages of the ConversionMetrics.
+ */
+class SlideRenderPipeline implements Closeable {
+
+    private static final Future<SlideImageProfile.Encoded> END = new FutureTask<>(() -> null);
+
+    private final PageRenderer renderer;
+    private final SlideImageProfile profile;
+    private final ConversionCache.Entry cache;
+    private final ConversionMetrics metrics;
+    private final int pageCount;
+    private final int[] pages;
+    private final BlockingQueue<Future<SlideImageProfile.Encoded>> encoded;
+    private final ExecutorService encoders;
+    private final Thread renderThread;
+    private boolean finished;
+
+    SlideRenderPipeline(PageRenderer renderer, SlideImageProfile profile,
+                        ConversionCache.Entry cache, int queueDepth, ConversionMetrics metrics,
+                        PageSelection selection) {
+        this.renderer = renderer;
+        this.profile = profile;
+        this.cache = cache;
+        this.metrics = metrics;
+        this.pageCount = renderer.getPageCount();
+        this.pages = selection.pages(pageCount);
+        if (pages.length == 0) {
+            throw new IllegalArgumentException(PageTextStream.noPagesMessage(selection, pageCount));
+        }
+        int depth = Math.max(1, queueDepth);
+        int threads = Math.max(1, Math.min(depth, Runtime.getRuntime().availableProcessors() - 1));
+        this.encoded = new ArrayBlockingQueue<>(depth);
+        this.encoders = Executors.newFixedThreadPool(threads);
+        this.renderThread = new Thread(this::render, "hanu-slide-render");
+        this.renderThread.start();
+    }
+
+    /** Page count of the whole document. */
+    int getPageCount() {
+        return pageCount;
+    }
+
+    /** Selected page numbers, in the order next() returns their slides. */
+    int[] getPages() {
+        return pages;
+    }
+
+    /**
+     * Blocks until the next selected page in order is encoded. Returns null after the last one.
+     */
+    SlideImageProfile.Encoded next() throws Exception {
+        if (finished) return null;
+        Future<SlideImageProfile.Encoded> slot = encoded.take();
+        if (slot == END) {
+            finished = true;
+            return null;
+        }
+        try {
+            return slot.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    @Override
+    public void close() {
+        boolean interrupted = false;
+        renderThread.interrupt();
+        while (renderThread.isAlive()) {
+            try {
+                renderThread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        // Queued encodes never run, so their pages are released here
+        for (Runnable dropped : encoders.shutdownNow()) {
+            if (dropped instanceof EncodeTask) ((EncodeTask) dropped).page.release();
+        }
+        // Running encodes still read their page's pixels; the caller closes the renderer next
+        while (!encoders.isTerminated()) {
+            try {
+                encoders.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private void render() {
+        try {
+            for (int pageNumber : pages) {
+                SlideImageProfile.Encoded cached = cache != null ? cache.getImage(profile, pageNumber) : null;
+                if (cached != null) {
+                    encoded.put(done(cached));
+                    continue;
+                }
+
+                RenderedPage page;
+                try {
+                    ConversionMetrics.Section section = metrics.begin(ConversionMetrics.Stage.RENDER, pageNumber);
+                    page = renderer.render(pageNumber - 1, profile);
+                    section.end();
+                } catch (Exception e) {
+                    FutureTask<SlideImageProfile.Encoded> failed = new FutureTask<>(() -> { throw e; });
+                    failed.run();
+                    encoded.put(failed);
+                    return;
+                }
+                EncodeTask task = new EncodeTask(page, pageNumber);
+                encoders.execute(task);
+                encoded.put(task);
+            }
+            encoded.put(END);
+        } catch (InterruptedException e) {
+            // Assembly stopped early; leave the remaining pages unrendered
+        }
+    }
+
+    private static Future<SlideImageProfile.Encoded> done(SlideImageProfile.Encoded image) {
+        FutureTask<SlideImageProfile.Encoded> task = new FutureTask<>(() -> image);
+        task.run();
+        return task;
+    }
+
+    /**
+     * Encode of one rendered page; keeps the page so close() can release it if the task never runs.
+     */
+    private final class EncodeTask extends FutureTask<SlideImageProfile.Encoded> {
+        final RenderedPage page;
+
+        EncodeTask(RenderedPage page, int pageNumber) {
+            super(() -> encode(page, pageNumber));
+            this.page = page;
+        }
+    }
+
+    private SlideImageProfile.Encoded encode(RenderedPage page, int pageNumber) throws Exception {
+        try {
+            ConversionMetrics.Section section = metrics.begin(ConversionMetrics.Stage.ENCODE, pageNumber);
+            SlideImageProfile.Encoded image = page.encode(profile);
+            section.end(0, image.data.length);
+            if (cache != null) cache.putImage(profile, pageNumber, image);
+            return image;
+        } finally {
+            page.release();
+        }
+    }
+}
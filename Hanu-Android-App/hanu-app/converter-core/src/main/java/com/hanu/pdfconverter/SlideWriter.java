@@ -0,0 +1,66 @@
+package com.hanu.pdfconverter;
+
+import org.apache.poi.sl.usermodel.TextParagraph;
+import org.apache.poi.xslf.usermodel.XMLSlideShow;
+import org.apache.poi.xslf.usermodel.XSLFPictureData;
+import org.apache.poi.xslf.usermodel.XSLFPictureShape;
+import org.apache.poi.xslf.usermodel.XSLFSlide;
+import org.apache.poi.xslf.usermodel.XSLFTextBox;
+import org.apache.poi.xslf.usermodel.XSLFTextParagraph;
+import org.apache.poi.xslf.usermodel.XSLFTextRun;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * SlideWriter - Writes rendered page images as full-slide pictures of a .pptx deck,
+ * one slide per PDF page with a page-number label.
+ */
+class SlideWriter implements Closeable {
+
+    private final XMLSlideShow pptx = new XMLSlideShow();
+    private final java.awt.Dimension pgSize;
+
+    SlideWriter() {
+        // Set slide dimensions (standard 16:9 widescreen)
+        pgSize = new java.awt.Dimension(
+            (int)(10 * 72), // 10 inches width
+            (int)(7.5 * 72)  // 7.5 inches height
+        );
+        pptx.setPageSize(pgSize);
+    }
+
+    void addSlide(SlideImageProfile.Encoded image, int pageNumber, int pageCount) {
+        // Create slide
+        XSLFSlide slide = pptx.createSlide();
+        slide.getBackground().setFillColor(java.awt.Color.WHITE);
+
+        // Add image to fill entire slide
+        XSLFPictureData pictureData = pptx.addPicture(image.data, image.type);
+        XSLFPictureShape shape = slide.createPicture(pictureData);
+        shape.setAnchor(new java.awt.Rectangle(0, 0, pgSize.width, pgSize.height));
+
+        // Add slide number label
+        XSLFTextBox textBox = slide.createTextBox();
+        textBox.setAnchor(new java.awt.Rectangle(pgSize.width - 80, pgSize.height - 30, 70, 24));
+        XSLFTextParagraph tp = textBox.addNewTextParagraph();
+        tp.setTextAlign(TextParagraph.TextAlign.RIGHT);
+        XSLFTextRun tr = tp.addNewTextRun();
+        tr.setText(pageNumber + " / " + pageCount);
+        tr.setFontSize(9.0);
+        tr.setFontColor(java.awt.Color.GRAY);
+    }
+
+    void save(File outputFile) throws IOException {
+        try (FileOutputStream fos = new FileOutputStream(outputFile)) {
+            pptx.write(fos);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        pptx.close();
+    }
+}
@@ -0,0 +1,187 @@
+package com.hanu.pdfconverter;
+
+import org.apache.poi.util.TempFile;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.xmlbeans.XmlException;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.StylesDocument;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * StreamingWordWriter - WordWriter's output without the XWPFDocument DOM.
+ *
+ * WordWriter builds an XMLBeans object per paragraph and run, which for
+ * book-length PDFs grows to hundreds of MB. This writer instead serializes each
+ * paragraph straight to WordprocessingML as the page comes in, into a gzipped
+ * temp file (the same trick SXSSF uses for sheet rows), so memory stays flat
+ * however long the document is.
+ *
+ * save() writes the package: every part of an empty XWPFDocument carrying the
+ * WordStyles (content types, relationships, doc props, settings, styles) copied
+ * as POI wrote it, with word/document.xml assembled from the temp file.
+ * Paragraphs, styles and page breaks match WordWriter. close() deletes the temp file.
+ */
+class StreamingWordWriter implements DocumentWriter {
+
+    private static final String DOCUMENT_PART = "word/document.xml";
+
+    private static final String DOCUMENT_START =
+        "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<w:document xmlns:w=\"http://schemas.openxmlformats.org/wordprocessingml/2006/main\">"
+            + "<w:body>";
+    private static final String DOCUMENT_END = "</w:body></w:document>";
+
+    // Paragraph openings; all formatting comes from the WordStyles
+    private static final String TITLE_START =
+        "<w:p><w:pPr><w:pStyle w:val=\"" + WordStyles.TITLE + "\"/></w:pPr><w:r>";
+    private static final String PAGE_HEADING_START =
+        "<w:p><w:pPr><w:pStyle w:val=\"" + WordStyles.PAGE_HEADING + "\"/></w:pPr><w:r>";
+    private static final String NEXT_PAGE_HEADING_START =
+        "<w:p><w:pPr><w:pStyle w:val=\"" + WordStyles.PAGE_HEADING + "\"/><w:pageBreakBefore w:val=\"on\"/></w:pPr><w:r>";
+    private static final String HEADING_START =
+        "<w:p><w:pPr><w:pStyle w:val=\"" + WordStyles.HEADING + "\"/></w:pPr><w:r>";
+    private static final String BODY_START = "<w:p><w:r>";
+    private static final String PARAGRAPH_END = "</w:r></w:p>";
+
+    private final CancellationToken cancellation;
+    private final boolean reflow;
+    private final File bodyFile;
+    private final Writer body;
+    private boolean bodyClosed;
+    // Pages added so far; a page selection may not start at page 1
+    private int pagesWritten;
+
+    StreamingWordWriter(CancellationToken cancellation, boolean reflow) throws IOException {
+        this.cancellation = cancellation;
+        this.reflow = reflow;
+        this.bodyFile = TempFile.createTempFile("hanu-docx-body-", ".xml.gz");
+        try {
+            this.body = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(new FileOutputStream(bodyFile)), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            bodyFile.delete();
+            throw e;
+        }
+
+        // Document title
+        body.write(TITLE_START);
+        writeText("Converted by Hanu PDF Converter");
+        body.write(PARAGRAPH_END);
+    }
+
+    @Override
+    public void addPage(TextPage page) throws IOException {
+        // Page heading, starting a new page after the first one written
+        body.write(pagesWritten++ > 0 ? NEXT_PAGE_HEADING_START : PAGE_HEADING_START);
+        writeText("Page " + page.number);
+        body.write(PARAGRAPH_END);
+
+        List<ParagraphReflow.Paragraph> paragraphs =
+            reflow ? ParagraphReflow.reflow(page.lines, page.rows)
+                : ParagraphReflow.perLine(page.lines, page.rows);
+        for (ParagraphReflow.Paragraph paragraph : paragraphs) {
+            cancellation.throwIfCancelled();
+            body.write(paragraph.kind == ParagraphReflow.Kind.HEADING ? HEADING_START : BODY_START);
+            writeText(paragraph.text);
+            body.write(PARAGRAPH_END);
+        }
+    }
+
+    @Override
+    public void save(File outputFile) throws IOException {
+        if (!bodyClosed) {
+            body.close();
+            bodyClosed = true;
+        }
+        try (ZipInputStream template = new ZipInputStream(new ByteArrayInputStream(emptyPackage()));
+             ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(outputFile))) {
+            ZipEntry entry;
+            while ((entry = template.getNextEntry()) != null) {
+                zip.putNextEntry(new ZipEntry(entry.getName()));
+                if (DOCUMENT_PART.equals(entry.getName())) {
+                    writeDocument(zip);
+                } else {
+                    copy(template, zip);
+                }
+                zip.closeEntry();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!bodyClosed) body.close();
+        } finally {
+            bodyClosed = true;
+            bodyFile.delete();
+        }
+    }
+
+    /**
+     * The parts POI writes for an empty document with the WordStyles; only document.xml gets replaced.
+     */
+    private static byte[] emptyPackage() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (XWPFDocument empty = new XWPFDocument()) {
+            empty.createStyles().setStyles(StylesDocument.Factory.parse(WordStyles.XML).getStyles());
+            empty.write(bos);
+        } catch (XmlException e) {
+            throw new IOException(e);
+        }
+        return bos.toByteArray();
+    }
+
+    private void writeDocument(OutputStream out) throws IOException {
+        out.write(DOCUMENT_START.getBytes(StandardCharsets.UTF_8));
+        try (InputStream in = new GZIPInputStream(new FileInputStream(bodyFile))) {
+            copy(in, out);
+        }
+        out.write(DOCUMENT_END.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+    }
+
+    /**
+     * Writes a w:t element, escaping markup and dropping characters XML 1.0 can't carry.
+     */
+    private void writeText(String text) throws IOException {
+        body.write("<w:t xml:space=\"preserve\">");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&': body.write("&amp;"); break;
+                case '<': body.write("&lt;"); break;
+                case '>': body.write("&gt;"); break;
+                default:
+                    if (c >= 0x20 ? c < 0xFFFE : c == '\t' || c == '\n' || c == '\r') {
+                        body.write(c);
+                    }
+            }
+        }
+        body.write("</w:t>");
+    }
+}
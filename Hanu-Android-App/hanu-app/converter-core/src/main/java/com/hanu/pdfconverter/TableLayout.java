@@ -0,0 +1,179 @@
+package com.hanu.pdfconverter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * TableLayout - Turns positioned words into a grid of cells, one page at a time.
+ *
+ *  - Words on one line that sit closer than CELL_GAP glyph widths apart are merged
+ *    into a segment (one cell candidate)
+ *  - The x-extents of segments on lines with two or more segments are projected
+ *    onto the page; covered runs become columns and the gaps between them are the
+ *    column boundaries
+ *  - Each segment is placed in the column under its centre (single-segment lines,
+ *    such as headings and prose, by their left edge)
+ *
+ * One pass over the words plus one pass over the page width, so the cost stays
+ * linear in the amount of text. Coordinates are in points, x growing rightwards.
+ * Has no PDF library dependency; TableExtractor feeds it from PDFBox.
+ */
+class TableLayout {
+
+    // Gap between words, in average glyph widths, that starts a new cell
+    private static final float CELL_GAP = 1.2f;
+
+    private static final class Segment {
+        final int line;
+        float x0;
+        float x1;
+        float glyphWidth;
+        int glyphs;
+        final StringBuilder text = new StringBuilder();
+
+        Segment(int line) {
+            this.line = line;
+        }
+
+        float averageGlyphWidth() {
+            return glyphs > 0 ? glyphWidth / glyphs : 0;
+        }
+    }
+
+    private final List<Segment> segments = new ArrayList<>();
+    private int line;
+    private Segment last;
+
+    /**
+     * Starts a new page.
+     */
+    void reset() {
+        segments.clear();
+        line = 0;
+        last = null;
+    }
+
+    /**
+     * Adds a word of the current line.
+     *
+     * @param x0         left edge of the first glyph
+     * @param x1         right edge of the last glyph
+     * @param glyphWidth summed width of the word's glyphs
+     * @param glyphs     number of glyphs
+     */
+    void addWord(String word, float x0, float x1, float glyphWidth, int glyphs) {
+        if (word.isEmpty() || glyphs <= 0) return;
+        float gapLimit = last != null
+            ? CELL_GAP * Math.max(last.averageGlyphWidth(), glyphWidth / glyphs) : 0;
+        if (last == null || last.line != line || x0 - last.x1 > gapLimit) {
+            last = new Segment(line);
+            last.x0 = x0;
+            segments.add(last);
+        } else {
+            last.text.append(' ');
+        }
+        last.text.append(word);
+        last.x1 = Math.max(last.x1, x1);
+        last.glyphWidth += glyphWidth;
+        last.glyphs += glyphs;
+    }
+
+    /**
+     * Ends the current line. Extra calls with no words in between are ignored.
+     */
+    void endLine() {
+        if (last != null && last.line == line) line++;
+    }
+
+    /**
+     * Cell grid of the words added since reset(), one array per non-empty line.
+     * Rows have as many cells as they need, up to the page's column count; empty
+     * cells are "".
+     */
+    List<String[]> rows() {
+        if (segments.isEmpty()) return new ArrayList<>();
+        int lines = segments.get(segments.size() - 1).line + 1;
+
+        int[] perLine = new int[lines];
+        float maxX = 0;
+        for (Segment s : segments) {
+            perLine[s.line]++;
+            maxX = Math.max(maxX, s.x1);
+        }
+
+        // Project multi-segment lines onto 1pt bins (difference array, then prefix sums)
+        int bins = (int) Math.ceil(maxX) + 2;
+        int[] coverage = new int[bins + 1];
+        boolean tabular = false;
+        for (Segment s : segments) {
+            if (perLine[s.line] < 2) continue;
+            coverage[bin(s.x0, bins)]++;
+            coverage[bin(s.x1, bins) + 1]--;
+            tabular = true;
+        }
+
+        int[] column = new int[bins];
+        int columns = 0;
+        if (tabular) {
+            int running = 0;
+            boolean inColumn = false;
+            for (int b = 0; b < bins; b++) {
+                running += coverage[b];
+                if (running > 0) {
+                    if (!inColumn) columns++;
+                    inColumn = true;
+                    column[b] = columns - 1;
+                } else {
+                    inColumn = false;
+                    column[b] = -1;
+                }
+            }
+            // A gap belongs to the column on its right; past the last column, to the last
+            int next = columns - 1;
+            for (int b = bins - 1; b >= 0; b--) {
+                if (column[b] < 0) {
+                    column[b] = next;
+                } else {
+                    next = column[b];
+                }
+            }
+        } else {
+            columns = 1;
+        }
+
+        String[][] grid = new String[lines][];
+        int[] width = new int[lines];
+        for (Segment s : segments) {
+            int c = 0;
+            if (tabular) {
+                float anchor = perLine[s.line] > 1 ? (s.x0 + s.x1) / 2 : s.x0;
+                c = column[bin(anchor, bins)];
+            }
+            String[] row = grid[s.line];
+            if (row == null) {
+                row = new String[columns];
+                grid[s.line] = row;
+            }
+            // Two segments landing in one column are the same cell
+            row[c] = row[c] == null ? s.text.toString() : row[c] + " " + s.text;
+            width[s.line] = Math.max(width[s.line], c + 1);
+        }
+
+        List<String[]> rows = new ArrayList<>(lines);
+        for (int l = 0; l < lines; l++) {
+            String[] row = grid[l];
+            if (row == null) continue;
+            row = Arrays.copyOf(row, width[l]);
+            for (int c = 0; c < row.length; c++) {
+                if (row[c] == null) row[c] = "";
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static int bin(float x, int bins) {
+        return Math.max(0, Math.min(bins - 1, (int) x));
+    }
+}
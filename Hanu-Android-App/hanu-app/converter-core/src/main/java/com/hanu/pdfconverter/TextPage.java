@@ -0,0 +1,29 @@
+package com.hanu.pdfconverter;
+
+import java.util.List;
+
+/**
+ * TextPage - Extracted text of one PDF page, as handed to the Excel and Word writers.
+ *
+ * lines is the page text in reading order, with a blank line at each paragraph
+ * break the extractor detected; rows is the cell grid laid out by
+ * TableLayout, or null when only plain lines are available (e.g. the fallback page).
+ */
+public final class TextPage {
+
+    public final int number;
+    public final int totalPages;
+    public final List<String> lines;
+    public final List<String[]> rows;
+
+    public TextPage(int number, int totalPages, List<String> lines) {
+        this(number, totalPages, lines, null);
+    }
+
+    public TextPage(int number, int totalPages, List<String> lines, List<String[]> rows) {
+        this.number = number;
+        this.totalPages = totalPages;
+        this.lines = lines;
+        this.rows = rows;
+    }
+}
@@ -0,0 +1,38 @@
+package com.hanu.pdfconverter;
+
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ * TextRecognizer - Reads words off a rendered page, for pages without a text layer.
+ *
+ * The app supplies MlKitTextRecognizer (on-device ML Kit). OcrStage calls
+ * recognize() for several tiles of a page at once, from its own pool, so
+ * implementations must be thread-safe.
+ */
+public interface TextRecognizer extends Closeable {
+
+    /** A recognized word and its bounding box, in pixels. */
+    final class Word {
+        public final String text;
+        public final int left;
+        public final int top;
+        public final int right;
+        public final int bottom;
+
+        public Word(String text, int left, int top, int right, int bottom) {
+            this.text = text;
+            this.left = left;
+            this.top = top;
+            this.right = right;
+            this.bottom = bottom;
+        }
+    }
+
+    /**
+     * Recognizes the words in one tile of the page. Boxes are relative to the tile's
+     * top-left corner. Gives up with an exception once timeoutMillis has passed.
+     */
+    List<Word> recognize(RenderedPage page, int left, int top, int width, int height,
+                         long timeoutMillis) throws Exception;
+}
@@ -0,0 +1,52 @@
+package com.hanu.pdfconverter;
+
+/**
+ * WordStyles - The styles part (word/styles.xml) shared by WordWriter and StreamingWordWriter.
+ *
+ * Formatting lives in four paragraph styles instead of on every run, so a body
+ * paragraph is just text and a heading just names its style:
+ *  - Normal (default): Calibri 11pt, a little space after each paragraph
+ *  - Title: the "Converted by Hanu" line, bold green 14pt, centred
+ *  - Heading2: the "Page N" heading, grey 9pt
+ *  - Heading3: headings detected in the page text, bold 12pt
+ * Heading2/3 keep Word's built-in IDs and outline levels, so they show up in the
+ * navigation pane.
+ */
+final class WordStyles {
+
+    static final String TITLE = "Title";
+    static final String PAGE_HEADING = "Heading2";
+    static final String HEADING = "Heading3";
+
+    static final String XML =
+        "<w:styles xmlns:w=\"http://schemas.openxmlformats.org/wordprocessingml/2006/main\">"
+            + "<w:docDefaults>"
+            + "<w:rPrDefault><w:rPr>"
+            + "<w:rFonts w:ascii=\"Calibri\" w:eastAsia=\"Calibri\" w:hAnsi=\"Calibri\" w:cs=\"Calibri\"/>"
+            + "<w:sz w:val=\"22\"/><w:szCs w:val=\"22\"/>"
+            + "</w:rPr></w:rPrDefault>"
+            + "<w:pPrDefault><w:pPr><w:spacing w:after=\"120\" w:line=\"264\" w:lineRule=\"auto\"/></w:pPr></w:pPrDefault>"
+            + "</w:docDefaults>"
+            + "<w:style w:type=\"paragraph\" w:default=\"1\" w:styleId=\"Normal\">"
+            + "<w:name w:val=\"Normal\"/><w:qFormat/>"
+            + "</w:style>"
+            + "<w:style w:type=\"paragraph\" w:styleId=\"" + TITLE + "\">"
+            + "<w:name w:val=\"Title\"/><w:basedOn w:val=\"Normal\"/><w:next w:val=\"Normal\"/><w:qFormat/>"
+            + "<w:pPr><w:spacing w:after=\"240\"/><w:jc w:val=\"center\"/></w:pPr>"
+            + "<w:rPr><w:b/><w:color w:val=\"1a6b3a\"/><w:sz w:val=\"28\"/></w:rPr>"
+            + "</w:style>"
+            + "<w:style w:type=\"paragraph\" w:styleId=\"" + PAGE_HEADING + "\">"
+            + "<w:name w:val=\"heading 2\"/><w:basedOn w:val=\"Normal\"/><w:next w:val=\"Normal\"/><w:qFormat/>"
+            + "<w:pPr><w:keepNext/><w:outlineLvl w:val=\"1\"/></w:pPr>"
+            + "<w:rPr><w:color w:val=\"888888\"/><w:sz w:val=\"18\"/></w:rPr>"
+            + "</w:style>"
+            + "<w:style w:type=\"paragraph\" w:styleId=\"" + HEADING + "\">"
+            + "<w:name w:val=\"heading 3\"/><w:basedOn w:val=\"Normal\"/><w:next w:val=\"Normal\"/><w:qFormat/>"
+            + "<w:pPr><w:keepNext/><w:spacing w:before=\"200\" w:after=\"60\"/><w:outlineLvl w:val=\"2\"/></w:pPr>"
+            + "<w:rPr><w:b/><w:sz w:val=\"24\"/></w:rPr>"
+            + "</w:style>"
+            + "</w:styles>";
+
+    private WordStyles() {
+    }
+}
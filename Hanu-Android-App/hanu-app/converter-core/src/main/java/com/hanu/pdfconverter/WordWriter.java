@@ -0,0 +1,76 @@
+package com.hanu.pdfconverter;
+
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.xmlbeans.XmlException;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.StylesDocument;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * WordWriter - Writes extracted pages as paragraphs of a .docx document,
+ * with a heading and page break per PDF page.
+ *
+ * Lines are reflowed into paragraphs (see ParagraphReflow) and formatted through
+ * the shared styles in WordStyles, so runs carry no formatting of their own.
+ *
+ * The whole document is held as an XWPFDocument until save(); see
+ * StreamingWordWriter for the same output at flat memory.
+ */
+class WordWriter implements DocumentWriter {
+
+    private final CancellationToken cancellation;
+    private final boolean reflow;
+    private final XWPFDocument document = new XWPFDocument();
+    // Pages added so far; a page selection may not start at page 1
+    private int pagesWritten;
+
+    WordWriter(CancellationToken cancellation, boolean reflow) throws IOException {
+        this.cancellation = cancellation;
+        this.reflow = reflow;
+        try {
+            document.createStyles().setStyles(StylesDocument.Factory.parse(WordStyles.XML).getStyles());
+        } catch (XmlException e) {
+            throw new IOException(e);
+        }
+
+        // Document title
+        XWPFParagraph titlePara = document.createParagraph();
+        titlePara.setStyle(WordStyles.TITLE);
+        titlePara.createRun().setText("Converted by Hanu PDF Converter");
+    }
+
+    @Override
+    public void addPage(TextPage page) {
+        // Page heading, starting a new page after the first one written
+        XWPFParagraph pagePara = document.createParagraph();
+        pagePara.setStyle(WordStyles.PAGE_HEADING);
+        if (pagesWritten++ > 0) pagePara.setPageBreak(true);
+        pagePara.createRun().setText("Page " + page.number);
+
+        List<ParagraphReflow.Paragraph> paragraphs =
+            reflow ? ParagraphReflow.reflow(page.lines, page.rows)
+                : ParagraphReflow.perLine(page.lines, page.rows);
+        for (ParagraphReflow.Paragraph paragraph : paragraphs) {
+            cancellation.throwIfCancelled();
+            XWPFParagraph para = document.createParagraph();
+            if (paragraph.kind == ParagraphReflow.Kind.HEADING) para.setStyle(WordStyles.HEADING);
+            para.createRun().setText(paragraph.text);
+        }
+    }
+
+    @Override
+    public void save(File outputFile) throws IOException {
+        try (FileOutputStream fos = new FileOutputStream(outputFile)) {
+            document.write(fos);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        document.close();
+    }
+}
@@ -0,0 +1,75 @@
+package com.hanu.pdfconverter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * CellTokenizerTest - CellTokenizer against split("\t|  {2,}") plus trim(), the
+ * code it replaced in ExcelWriter.
+ *
+ * - Hand-picked lines for each rule in the CellTokenizer doc
+ * - Three million random lines from a seeded Random, over an alphabet weighted
+ *   toward spaces so runs of every length around the threshold come up
+ */
+public class CellTokenizerTest {
+
+    private static final String CELL_REGEX = "\t|  {2,}";
+
+    private static final int RANDOM_LINES = 3_000_000;
+    private static final int MAX_LINE_LENGTH = 24;
+    // Spaces and tabs separate; \u000b is trimmed but never
+    // separates; \u00a0 is neither
+    private static final char[] ALPHABET = {
+        'a', 'b', ' ', ' ', ' ', ' ', '\t', '\u000b', '\u00a0'
+    };
+
+    @Test
+    public void matchesSplitOnEdgeCases() {
+        String[] lines = {
+            "", "a", " ", "  ", "   ", "\t", "\t\t", "a\tb", "a  b", "a   b", "a    b",
+            "\ta", "   a", "a\t", "a   ", "a\t\tb", "a\t   \tb", " a \t b ", "a \t",
+            "\u000b\ta", "a\t\u000b", "\u00a0\t\u00a0", "a  \t  b", "  a  "
+        };
+        CellTokenizer tokenizer = new CellTokenizer();
+        for (String line : lines) {
+            assertSameCells(tokenizer, line);
+        }
+    }
+
+    @Test
+    public void matchesSplitOnRandomLines() {
+        Random random = new Random(20240117L);
+        CellTokenizer tokenizer = new CellTokenizer();
+        char[] chars = new char[MAX_LINE_LENGTH];
+        for (int i = 0; i < RANDOM_LINES; i++) {
+            int length = random.nextInt(MAX_LINE_LENGTH + 1);
+            for (int c = 0; c < length; c++) {
+                chars[c] = ALPHABET[random.nextInt(ALPHABET.length)];
+            }
+            assertSameCells(tokenizer, new String(chars, 0, length));
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────────
+
+    private static void assertSameCells(CellTokenizer tokenizer, String line) {
+        List<String> expected = new ArrayList<>();
+        for (String cell : line.split(CELL_REGEX)) {
+            expected.add(cell.trim());
+        }
+
+        List<String> actual = new ArrayList<>();
+        tokenizer.reset(line);
+        while (tokenizer.next()) {
+            actual.add(line.substring(tokenizer.start(), tokenizer.end()));
+        }
+
+        assertEquals("cells of " + Arrays.toString(line.toCharArray()), expected, actual);
+    }
+}
@@ -0,0 +1,160 @@
+package com.hanu.pdfconverter;
+
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * LargeDocumentHeapTest - Feeds the streaming writers about 100k lines and checks
+ * that used heap after the last page is no higher than after the first few.
+ *
+ * - ExcelWriter: also checks that SXSSF keeps no more than its row window unflushed
+ * - StreamingWordWriter: also checks every line reached word/document.xml
+ *
+ * The test JVM runs with a small heap (see build.gradle), so a writer that starts
+ * holding the whole document fails here long before it would on a phone.
+ */
+public class LargeDocumentHeapTest {
+
+    private static final int PAGES = 2000;
+    private static final int LINES_PER_PAGE = 50;
+    // Pages written before the baseline is taken, so POI's one-off setup is excluded
+    private static final int WARMUP_PAGES = 200;
+    // Allowed growth between the baseline and the last page; the whole document
+    // held in memory is several times this
+    private static final long MAX_GROWTH_BYTES = 8L * 1024 * 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void excelHeapStaysFlat() throws Exception {
+        File out = folder.newFile("large.xlsx");
+        try (ExcelWriter writer = new ExcelWriter(new CancellationToken())) {
+            SXSSFSheet sheet = sheetOf(writer);
+            int window = sheet.getWorkbook().getRandomAccessWindowSize();
+            long baseline = 0;
+            for (int p = 1; p <= PAGES; p++) {
+                writer.addPage(page(p, p % 2 == 0));
+                assertTrue("rows in memory after page " + p,
+                    sheet.getLastRowNum() - sheet.getLastFlushedRowNum() <= window);
+                if (p == WARMUP_PAGES) {
+                    baseline = usedHeap();
+                }
+            }
+            assertHeapFlat(baseline, usedHeap());
+
+            writer.save(out);
+        }
+        assertTrue(out.length() > 0);
+    }
+
+    @Test
+    public void streamingWordHeapStaysFlat() throws IOException {
+        File out = folder.newFile("large.docx");
+        try (StreamingWordWriter writer = new StreamingWordWriter(new CancellationToken(), false)) {
+            long baseline = 0;
+            for (int p = 1; p <= PAGES; p++) {
+                writer.addPage(page(p, false));
+                if (p == WARMUP_PAGES) {
+                    baseline = usedHeap();
+                }
+            }
+            assertHeapFlat(baseline, usedHeap());
+
+            writer.save(out);
+        }
+        // Title, one heading per page, one paragraph per line
+        assertEquals(1 + PAGES + PAGES * LINES_PER_PAGE, countInDocumentXml(out, "</w:p>"));
+    }
+
+    // ─────────────────────────────────────────────────────────────────────
+
+    private static TextPage page(int number, boolean withRows) {
+        List<String> lines = new ArrayList<>(LINES_PER_PAGE);
+        List<String[]> rows = withRows ? new ArrayList<String[]>(LINES_PER_PAGE) : null;
+        for (int l = 0; l < LINES_PER_PAGE; l++) {
+            String item = "Item " + number + "-" + l;
+            String amount = (number * 31 + l * 7) % 10000 + "." + l % 100;
+            lines.add(item + "\t" + amount + "   quarterly figure for the northern region");
+            if (rows != null) {
+                rows.add(new String[] {item, amount, "2024-01-" + (10 + l % 20), "northern region"});
+            }
+        }
+        return new TextPage(number, PAGES, lines, rows);
+    }
+
+    private static void assertHeapFlat(long baseline, long end) {
+        long growth = end - baseline;
+        assertTrue("heap grew " + growth / 1024 + " KB after the first " + WARMUP_PAGES
+            + " pages", growth < MAX_GROWTH_BYTES);
+    }
+
+    /** The writer's sheet, read for its flush state; ExcelWriter has no accessor for it. */
+    private static SXSSFSheet sheetOf(ExcelWriter writer) throws ReflectiveOperationException {
+        Field sheet = ExcelWriter.class.getDeclaredField("sheet");
+        sheet.setAccessible(true);
+        return (SXSSFSheet) sheet.get(writer);
+    }
+
+    /** Used heap after a few full collections; the lowest reading wins. */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    /** Counts a tag in word/document.xml without loading the document. */
+    private static int countInDocumentXml(File docx, String tag) throws IOException {
+        byte[] pattern = tag.getBytes(StandardCharsets.US_ASCII);
+        try (ZipInputStream zip = new ZipInputStream(new FileInputStream(docx))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.getName().equals("word/document.xml")) {
+                    return count(zip, pattern);
+                }
+            }
+        }
+        throw new IOException("No word/document.xml in " + docx);
+    }
+
+    // The tags counted here never overlap themselves, so a mismatch restarts at 0
+    private static int count(InputStream in, byte[] pattern) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        int matched = 0;
+        int found = 0;
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            for (int i = 0; i < n; i++) {
+                if (buffer[i] == pattern[matched]) {
+                    if (++matched == pattern.length) {
+                        found++;
+                        matched = 0;
+                    }
+                } else {
+                    matched = buffer[i] == pattern[0] ? 1 : 0;
+                }
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,132 @@
+package com.hanu.pdfconverter;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JvmPdfSource - PdfSource for a PDF file on a plain JVM, backed by upstream PDFBox.
+ *
+ *  - Text: each extractor loads its own PDDocument with random access and a
+ *    MemoryUsageSetting that keeps at most maxMainMemoryBytes of parser buffers in
+ *    the heap; text and cell grids come out through PdfBoxTableExtractor
+ *  - Slides: rendered with PDFBox's PDFRenderer (see PdfBoxPageRenderer)
+ *
+ * For server-side batch jobs and CI performance runs:
+ * <pre>
+ *   try (JvmPdfSource source = new JvmPdfSource(pdfFile)) {
+ *       new ConversionEngine().exportAll(source, targets);
+ *   }
+ * </pre>
+ */
+public class JvmPdfSource implements PdfSource {
+
+    // Heap each PDFBox document may use for parser buffers before spilling to scratch files
+    private static final long DEFAULT_HEAP_LIMIT = 16L * 1024 * 1024;
+
+    private final File file;
+    private final long maxMainMemoryBytes;
+    private String sha256;
+
+    public JvmPdfSource(File file) {
+        this(file, DEFAULT_HEAP_LIMIT);
+    }
+
+    public JvmPdfSource(File file, long maxMainMemoryBytes) {
+        this.file = file;
+        this.maxMainMemoryBytes = Math.max(0, maxMainMemoryBytes);
+    }
+
+    @Override
+    public synchronized String contentHash() throws IOException {
+        if (sha256 == null) {
+            MessageDigest digest;
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IOException(e);
+            }
+            try (InputStream is = new FileInputStream(file)) {
+                byte[] buffer = new byte[64 * 1024];
+                int n;
+                while ((n = is.read(buffer)) != -1) {
+                    digest.update(buffer, 0, n);
+                }
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            sha256 = hex.toString();
+        }
+        return sha256;
+    }
+
+    @Override
+    public PageTextExtractor openTextExtractor() throws IOException {
+        return new TextExtractor(load());
+    }
+
+    @Override
+    public PageRenderer openRenderer() throws IOException {
+        return new PdfBoxPageRenderer(load());
+    }
+
+    @Override
+    public long length() {
+        return file.length();
+    }
+
+    @Override
+    public void close() {
+        // Nothing held between extractors and renderers
+    }
+
+    private PDDocument load() throws IOException {
+        return PDDocument.load(file, MemoryUsageSetting.setupMixed(maxMainMemoryBytes));
+    }
+
+    /**
+     * One parsed copy of the document with its own PdfBoxTableExtractor.
+     */
+    private static final class TextExtractor implements PageTextExtractor {
+        private final PDDocument document;
+        private final PdfBoxTableExtractor stripper;
+
+        TextExtractor(PDDocument document) throws IOException {
+            this.document = document;
+            try {
+                this.stripper = new PdfBoxTableExtractor();
+            } catch (IOException e) {
+                document.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public int getPageCount() {
+            return document.getNumberOfPages();
+        }
+
+        @Override
+        public TextPage extract(int pageNumber) throws IOException {
+            stripper.setStartPage(pageNumber);
+            stripper.setEndPage(pageNumber);
+            List<String> lines = Arrays.asList(stripper.getText(document).split("\n"));
+            return new TextPage(pageNumber, document.getNumberOfPages(), lines, stripper.rows());
+        }
+
+        @Override
+        public void close() throws IOException {
+            document.close();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.hanu.pdfconverter;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.poi.sl.usermodel.PictureData;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * PdfBoxPageRenderer - PageRenderer over PDFBox's PDFRenderer, for plain JVMs.
+ *
+ * Pages are rendered to RGB BufferedImages (RGB_565 profiles still render at full
+ * depth; Java2D has no cheaper pixel format worth converting to) and encoded with
+ * ImageIO. Images are left to the garbage collector, so release() does nothing.
+ */
+class PdfBoxPageRenderer implements PageRenderer {
+
+    private final PDDocument document;
+    private final PDFRenderer renderer;
+
+    PdfBoxPageRenderer(PDDocument document) {
+        this.document = document;
+        this.renderer = new PDFRenderer(document);
+    }
+
+    @Override
+    public int getPageCount() {
+        return document.getNumberOfPages();
+    }
+
+    @Override
+    public RenderedPage render(int pageIndex, SlideImageProfile profile) throws IOException {
+        PDRectangle box = document.getPage(pageIndex).getCropBox();
+        float scale = profile.scaleFor(box.getWidth(), box.getHeight());
+        java.awt.image.BufferedImage image = renderer.renderImage(pageIndex, scale, ImageType.RGB);
+        return new ImagePage(image);
+    }
+
+    @Override
+    public void close() throws IOException {
+        document.close();
+    }
+
+    private static final class ImagePage implements RenderedPage {
+        private final java.awt.image.BufferedImage image;
+
+        ImagePage(java.awt.image.BufferedImage image) {
+            this.image = image;
+        }
+
+        @Override
+        public int getWidth() {
+            return image.getWidth();
+        }
+
+        @Override
+        public int getHeight() {
+            return image.getHeight();
+        }
+
+        @Override
+        public SlideImageProfile.Encoded encode(SlideImageProfile profile) throws IOException {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            if (profile.prefersJpeg(image.getWidth(), image.getHeight(), image::getRGB)) {
+                writeJpeg(bos, profile.getQuality());
+                return new SlideImageProfile.Encoded(bos.toByteArray(), PictureData.PictureType.JPEG);
+            }
+            ImageIO.write(image, "png", bos);
+            return new SlideImageProfile.Encoded(bos.toByteArray(), PictureData.PictureType.PNG);
+        }
+
+        private void writeJpeg(ByteArrayOutputStream bos, int quality) throws IOException {
+            Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+            if (!writers.hasNext()) throw new IOException("No JPEG writer available");
+            ImageWriter writer = writers.next();
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(bos)) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(quality / 100f);
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+        }
+
+        @Override
+        public void release() {
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.hanu.pdfconverter;
+
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * PdfBoxTableExtractor - The app's TableExtractor on upstream PDFBox.
+ *
+ * Same hooks as TableExtractor; only the PDFBox package differs. Word extents go
+ * to a TableLayout, which clusters them into columns.
+ */
+class PdfBoxTableExtractor extends PDFTextStripper {
+
+    private final TableLayout layout = new TableLayout();
+
+    PdfBoxTableExtractor() throws IOException {
+        setSortByPosition(true);
+        // A blank line where PDFBox sees a paragraph break (line spacing, indent); see ParagraphReflow
+        setParagraphEnd(getLineSeparator());
+    }
+
+    @Override
+    protected void startPage(PDPage page) throws IOException {
+        layout.reset();
+        super.startPage(page);
+    }
+
+    @Override
+    protected void writeString(String text, List<TextPosition> textPositions) throws IOException {
+        super.writeString(text, textPositions);
+        if (textPositions.isEmpty()) return;
+
+        TextPosition first = textPositions.get(0);
+        TextPosition end = textPositions.get(textPositions.size() - 1);
+        float width = 0;
+        for (TextPosition position : textPositions) {
+            width += position.getWidthDirAdj();
+        }
+        layout.addWord(text.trim(), first.getXDirAdj(), end.getXDirAdj() + end.getWidthDirAdj(),
+            width, textPositions.size());
+    }
+
+    // Lines end at a line separator or, when PDFBox detects a paragraph break, a paragraph end
+
+    @Override
+    protected void writeLineSeparator() throws IOException {
+        super.writeLineSeparator();
+        layout.endLine();
+    }
+
+    @Override
+    protected void writeParagraphEnd() throws IOException {
+        super.writeParagraphEnd();
+        layout.endLine();
+    }
+
+    /**
+     * Cell grid of the page last passed to getText, one array per non-empty line.
+     */
+    List<String[]> rows() {
+        return layout.rows();
+    }
+}